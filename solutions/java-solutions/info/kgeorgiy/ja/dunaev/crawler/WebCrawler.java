@@ -7,6 +7,8 @@ import java.net.MalformedURLException;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -22,13 +24,14 @@ public class WebCrawler implements AdvancedCrawler {
     private static final int DEFAULT_DEPTH = 1;
 
     private final Downloader downloader;
-    private final ExecutorService downloadService;
+    private final DownloadScheduler downloadScheduler;
     private final ExecutorService extractService;
-    private final ConcurrentHashMap<String, PerHostQueue> hostsQueues;
     private final int perHost;
+    private final boolean pipelined;
 
     /**
-     * Creates crawler with specified settings.
+     * Creates crawler with specified settings. Pages are crawled layer by layer,
+     * downloads run in a fixed pool of {@code downloaders} platform threads.
      *
      * @param downloader  downloader of websites
      * @param downloaders maximum number of pages downloading in parallel
@@ -38,16 +41,78 @@ public class WebCrawler implements AdvancedCrawler {
      * @throws NullPointerException     if downloader is null
      */
     public WebCrawler(final Downloader downloader, final int downloaders, final int extractors, final int perHost) {
+        this(downloader, downloaders, extractors, perHost, false, false);
+    }
+
+    /**
+     * Creates crawler with specified settings and crawling mode.
+     * <p>
+     * Pipelined crawler does not have layer barriers: links are scheduled as soon as they are extracted,
+     * so a slow page does not stall the rest of the crawl. Downloaded pages are the same as the ones of the layer by layer crawler.
+     * <p>
+     * With virtual threads every download runs in its own virtual thread, and the limitations
+     * are enforced by semaphores, so waiting downloads do not occupy platform threads.
+     *
+     * @param downloader     downloader of websites
+     * @param downloaders    maximum number of pages downloading in parallel
+     * @param extractors     maximum number of pages extracting links in parallel from which
+     * @param perHost        maximum number of pages downloading in parallel from the same host
+     * @param pipelined      whether pages are crawled without layer barriers
+     * @param virtualThreads whether downloads run in virtual threads
+     * @throws IllegalArgumentException if non-positive limitations are provided
+     * @throws NullPointerException     if downloader is null
+     */
+    public WebCrawler(
+            final Downloader downloader,
+            final int downloaders,
+            final int extractors,
+            final int perHost,
+            final boolean pipelined,
+            final boolean virtualThreads
+    ) {
         Objects.requireNonNull(downloader, "downloader must not be null");
         if (downloaders <= 0 || extractors <= 0 || perHost <= 0) {
             throw new IllegalArgumentException("Expected positive limitations");
         }
 
         this.downloader = downloader;
-        this.downloadService = Executors.newFixedThreadPool(downloaders);
-        this.extractService = Executors.newFixedThreadPool(extractors);
-        this.hostsQueues = new ConcurrentHashMap<>();
         this.perHost = perHost;
+        this.pipelined = pipelined;
+        this.downloadScheduler = virtualThreads ? new VirtualScheduler(downloaders) : new PooledScheduler(downloaders);
+        this.extractService = Executors.newFixedThreadPool(extractors);
+    }
+
+    /**
+     * Creates crawler with specified settings, that crawls pages without layer barriers.
+     *
+     * @param downloader  downloader of websites
+     * @param downloaders maximum number of pages downloading in parallel
+     * @param extractors  maximum number of pages extracting links in parallel from which
+     * @param perHost     maximum number of pages downloading in parallel from the same host
+     * @return the crawler
+     * @throws IllegalArgumentException if non-positive limitations are provided
+     * @throws NullPointerException     if downloader is null
+     * @see #WebCrawler(Downloader, int, int, int, boolean, boolean)
+     */
+    public static WebCrawler pipelined(final Downloader downloader, final int downloaders, final int extractors, final int perHost) {
+        return new WebCrawler(downloader, downloaders, extractors, perHost, true, false);
+    }
+
+    /**
+     * Creates crawler with specified settings, that downloads pages in virtual threads.
+     * Thousands of downloads may wait for their hosts without thousands of platform threads.
+     *
+     * @param downloader  downloader of websites
+     * @param downloaders maximum number of pages downloading in parallel
+     * @param extractors  maximum number of pages extracting links in parallel from which
+     * @param perHost     maximum number of pages downloading in parallel from the same host
+     * @return the crawler
+     * @throws IllegalArgumentException if non-positive limitations are provided
+     * @throws NullPointerException     if downloader is null
+     * @see #WebCrawler(Downloader, int, int, int, boolean, boolean)
+     */
+    public static WebCrawler withVirtualThreads(final Downloader downloader, final int downloaders, final int extractors, final int perHost) {
+        return new WebCrawler(downloader, downloaders, extractors, perHost, false, true);
     }
 
     private List<String> getLinks(
@@ -63,104 +128,222 @@ public class WebCrawler implements AdvancedCrawler {
         return Collections.emptyList();
     }
 
-    private Future<List<String>> downloadThenExtractLinks(
+    private CompletableFuture<List<String>> downloadThenExtractLinks(
             final Set<String> downloaded,
             final Map<String, IOException> errors,
             final String url,
             final int depth
     ) {
-        try {
-            final Document doc = downloader.download(url);
-            downloaded.add(url);
-            if (depth > 1) {
-                return extractService.submit(() -> getLinks(errors, doc, url));
+        return downloadScheduler.download(url).handle((doc, e) -> {
+            if (e instanceof IOException ioe) {
+                errors.put(url, ioe);
+            } else if (e != null) {
+                return CompletableFuture.<List<String>>failedFuture(e);
+            } else {
+                downloaded.add(url);
+                if (depth > 1) {
+                    return CompletableFuture.supplyAsync(() -> getLinks(errors, doc, url), extractService);
+                }
             }
-        } catch (final IOException e) {
-            errors.put(url, e);
-        }
-        return CompletableFuture.completedFuture(Collections.emptyList());
+            return CompletableFuture.completedFuture(Collections.<String>emptyList());
+        }).thenCompose(links -> links);
     }
 
-    private class PerHostQueue {
-        private final ArrayDeque<Task> queue = new ArrayDeque<>();
-        private int counter = 0;
+    /**
+     * Downloads pages respecting the limitations of the crawler.
+     */
+    private interface DownloadScheduler {
+        CompletableFuture<Document> download(String url);
 
-        private record Task(Callable<Future<List<String>>> task,
-                            CompletableFuture<Future<Future<List<String>>>> resultFuture) {
+        void clearUnusedHosts(Stream<String> hosts);
+
+        void close();
+    }
+
+    /**
+     * Runs downloads in a fixed pool of platform threads, per host limitation is enforced by queues of waiting downloads.
+     */
+    private class PooledScheduler implements DownloadScheduler {
+        private final ExecutorService downloadService;
+        private final ConcurrentHashMap<String, PerHostQueue> hostsQueues = new ConcurrentHashMap<>();
+
+        private PooledScheduler(final int downloaders) {
+            downloadService = Executors.newFixedThreadPool(downloaders);
         }
 
-        private synchronized void bookTask() {
-            ++counter;
+        private class PerHostQueue {
+            private final ArrayDeque<Download> queue = new ArrayDeque<>();
+            private int counter = 0;
+
+            private record Download(String url, CompletableFuture<Document> result) {
+            }
+
+            // the result is completed by a download service, when the page is downloaded
+            private synchronized void submit(final String url, final CompletableFuture<Document> result) {
+                final Download download = new Download(url, result);
+                if (counter < perHost) {
+                    start(download);
+                } else {
+                    queue.add(download);
+                }
+            }
+
+            private synchronized void start(final Download download) {
+                try {
+                    downloadService.execute(() -> run(download));
+                    ++counter;
+                } catch (final RejectedExecutionException e) {
+                    download.result.completeExceptionally(e);
+                }
+            }
+
+            private void run(final Download download) {
+                Document document = null;
+                Throwable error = null;
+                try {
+                    document = downloader.download(download.url);
+                } catch (final Throwable e) {
+                    error = e;
+                } finally {
+                    // the slot is released before the result is published, so that a finished crawl leaves the queue empty
+                    done();
+                    complete(download.result, document, error);
+                }
+            }
+
+            private synchronized void done() {
+                --counter;
+                while (counter < perHost && !queue.isEmpty()) {
+                    start(queue.poll());
+                }
+            }
+
+            private synchronized boolean isEmpty() {
+                return counter == 0 && queue.isEmpty();
+            }
         }
 
-        private synchronized void unbookTask() {
-            --counter;
+        @Override
+        public CompletableFuture<Document> download(final String url) {
+            final String host = sneakyCallable(() -> URLUtils.getHost(url));
+
+            // notice: submitting under the map lock guarantees that clearUnusedHosts does not delete the queue meanwhile
+            final CompletableFuture<Document> result = new CompletableFuture<>();
+            hostsQueues.compute(host, (h, q) -> {
+                if (q == null) {
+                    q = new PerHostQueue();
+                }
+                q.submit(url, result);
+                return q;
+            });
+            return result;
         }
 
-        // returns future that will be done when the task is picked up by a download service
-        private synchronized Future<Future<Future<List<String>>>> submit(final Callable<Future<List<String>>> task) {
-            if (counter < perHost) {
-                ++counter;
-                return CompletableFuture.completedFuture(downloadService.submit(() -> {
-                    try {
-                        return task.call();
-                    } finally {
-                        done();
-                    }
-                }));
-            }
+        @Override
+        public void clearUnusedHosts(final Stream<String> hosts) {
+            hosts.forEach(host -> hostsQueues.computeIfPresent(host, (h, q) -> q.isEmpty() ? null : q));
+        }
 
-            final CompletableFuture<Future<Future<List<String>>>> future = new CompletableFuture<>();
-            queue.add(new Task(task, future));
-            return future;
+        @Override
+        public void close() {
+            downloadService.close();
         }
+    }
 
-        private synchronized void done() {
-            --counter;
-            tryRunNext();
+    /**
+     * Runs every download in its own virtual thread. Limitations are enforced by the global and per host semaphores,
+     * so a download waiting for its host blocks only its virtual thread.
+     */
+    private class VirtualScheduler implements DownloadScheduler {
+        private final ExecutorService downloadService = Executors.newVirtualThreadPerTaskExecutor();
+        private final Semaphore downloads;
+        private final ConcurrentHashMap<String, HostPermits> hostsPermits = new ConcurrentHashMap<>();
+
+        private VirtualScheduler(final int downloaders) {
+            downloads = new Semaphore(downloaders);
         }
 
-        private synchronized void tryRunNext() {
-            if (counter < perHost) {
-                final Task next = queue.poll();
-                if (next != null) {
-                    next.resultFuture.complete(submit(next.task).resultNow());
+        // users are changed under the map lock only, so the permits are deleted once nobody holds or waits for them
+        private static class HostPermits {
+            private final Semaphore permits;
+            private int users = 0;
+
+            private HostPermits(final int perHost) {
+                permits = new Semaphore(perHost);
+            }
+        }
+
+        @Override
+        public CompletableFuture<Document> download(final String url) {
+            final String host = sneakyCallable(() -> URLUtils.getHost(url));
+            final CompletableFuture<Document> result = new CompletableFuture<>();
+            try {
+                downloadService.execute(() -> run(host, url, result));
+            } catch (final RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        private void run(final String host, final String url, final CompletableFuture<Document> result) {
+            final HostPermits hostPermits = hostsPermits.compute(host, (h, p) -> {
+                if (p == null) {
+                    p = new HostPermits(perHost);
+                }
+                ++p.users;
+                return p;
+            });
+
+            Document document = null;
+            Throwable error = null;
+            try {
+                // the host permit is taken first, so that downloads waiting for a busy host do not hold global permits
+                hostPermits.permits.acquire();
+                try {
+                    downloads.acquire();
+                    try {
+                        document = downloader.download(url);
+                    } finally {
+                        downloads.release();
+                    }
+                } finally {
+                    hostPermits.permits.release();
                 }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+            } catch (final Throwable e) {
+                error = e;
+            } finally {
+                hostsPermits.computeIfPresent(host, (h, p) -> --p.users == 0 ? null : p);
+                complete(result, document, error);
             }
         }
 
-        private synchronized boolean isEmpty() {
-            return counter == 0 && queue.isEmpty();
+        @Override
+        public void clearUnusedHosts(final Stream<String> hosts) {
+            // permits of a host are deleted as soon as its downloads finish
         }
-    }
 
-    private Future<Future<Future<List<String>>>> signToDownloadQueue(
-            final Set<String> downloaded,
-            final Map<String, IOException> errors,
-            final String url,
-            final int i
-    ) {
-        final String host = sneakyCallable(() -> URLUtils.getHost(url));
+        @Override
+        public void close() {
+            downloadService.close();
+        }
+    }
 
-        // notice: ConcurrentHashMap.compute invokes the supplied function exactly once per invocation of the method
-        final PerHostQueue queue = hostsQueues.compute(host, (h, q) -> {
-            if (q == null) {
-                q = new PerHostQueue();
-            }
-            q.bookTask();   // so that the queue would not be deleted
-            return q;
-        });
-
-        final var res = queue.submit(() -> downloadThenExtractLinks(downloaded, errors, url, i));
-        queue.unbookTask();
-        queue.tryRunNext(); // in case booking the task prevented the submitted task from running
-        return res;
+    private static void complete(final CompletableFuture<Document> result, final Document document, final Throwable error) {
+        if (error == null) {
+            result.complete(document);
+        } else {
+            result.completeExceptionally(error);
+        }
     }
 
     private void clearUnusedHosts(final Map<String, IOException> errors, final Set<String> downloaded) {
-        Stream.concat(errors.keySet().stream(), downloaded.stream())
-                .map(url -> sneakyCallable(() -> URLUtils.getHost(url)))
-                .forEach(host -> hostsQueues.computeIfPresent(host, (h, q) -> q.isEmpty() ? null : q));
+        downloadScheduler.clearUnusedHosts(
+                Stream.concat(errors.keySet().stream(), downloaded.stream())
+                        .map(url -> sneakyCallable(() -> URLUtils.getHost(url)))
+        );
     }
 
     private boolean checkURL(
@@ -191,16 +374,14 @@ public class WebCrawler implements AdvancedCrawler {
         for (int layer = depth; layer > 0 && !toProcess.isEmpty(); --layer) {
             final int i = layer;
 
-            final var downloadFutures = toProcess.stream()
+            final var linksFutures = toProcess.stream()
                     .filter(u -> !downloaded.contains(u) && !errors.containsKey(u) && checkURL(u, errors, allowURL, allowHost))
-                    .map(u -> signToDownloadQueue(downloaded, errors, u, i))
+                    .map(u -> downloadThenExtractLinks(downloaded, errors, u, i))
                     .toList();
 
-            toProcess = downloadFutures.stream()
-                    .map(f -> sneakyCallable(f::get))  // This get waits for task to be picked up by a download service
-                    .map(f -> sneakyCallable(f::get))  // Get downloaded documents
-                    .map(f -> sneakyCallable(f::get))  // Get extracted links
-                    .flatMap(List::stream)             // Concat all links
+            toProcess = linksFutures.stream()
+                    .map(CompletableFuture::join)  // Get extracted links
+                    .flatMap(List::stream)         // Concat all links
                     .collect(Collectors.toSet());
         }
 
@@ -208,12 +389,138 @@ public class WebCrawler implements AdvancedCrawler {
         return new Result(downloaded.stream().toList(), errors);
     }
 
+    private static class Page {
+        // remaining depth of the best path found to the page so far
+        private int depth;
+        // remaining depth the links of the page were walked with
+        private int walked;
+        private Document document;
+        private CompletableFuture<List<String>> links;
+
+        private Page(final int depth) {
+            this.depth = depth;
+        }
+
+        private synchronized boolean isWalkedWith(final int depth) {
+            return walked == depth;
+        }
+    }
+
+    /**
+     * Single crawl. Pages are downloaded as soon as they are found, without waiting for the whole layer,
+     * and links are walked as soon as they are extracted.
+     * <p>
+     * Pages may be found by longer paths first, so every page keeps the best remaining depth it was found with.
+     * When a better path is found, links of the page are walked again with the new depth,
+     * but the page is neither downloaded nor extracted twice.
+     * So the downloaded pages are the same as the ones of the breadth-first search.
+     */
+    private class Crawl {
+        private final Map<String, IOException> errors = new ConcurrentHashMap<>();
+        private final Set<String> downloaded = ConcurrentHashMap.newKeySet();
+        private final Map<String, Page> pages = new ConcurrentHashMap<>();
+        private final Predicate<String> allowURL;
+        private final Predicate<String> allowHost;
+        // number of the started stages, the crawl is done when all of them finish
+        private final AtomicInteger pending = new AtomicInteger();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Crawl(final Predicate<String> allowURL, final Predicate<String> allowHost) {
+            this.allowURL = allowURL;
+            this.allowHost = allowHost;
+        }
+
+        private Result run(final String url, final int depth) {
+            await(CompletableFuture.completedFuture(null), (v, e) -> visit(url, depth));
+            done.join();
+            clearUnusedHosts(errors, downloaded);
+            return new Result(downloaded.stream().toList(), errors);
+        }
+
+        // runs the action when the future is done, the crawl is not done until the action finishes
+        private <T> void await(final CompletableFuture<T> future, final BiConsumer<T, Throwable> action) {
+            pending.incrementAndGet();
+            future.whenComplete((value, error) -> {
+                try {
+                    action.accept(value, error);
+                } catch (final RuntimeException e) {
+                    done.completeExceptionally(e);
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        done.complete(null);
+                    }
+                }
+            });
+        }
+
+        private void visit(final String url, final int depth) {
+            final Page created = new Page(depth);
+            final Page page = pages.putIfAbsent(url, created);
+            if (page == null) {
+                if (checkURL(url, errors, allowURL, allowHost)) {
+                    await(downloadScheduler.download(url), (doc, e) -> downloaded(url, created, doc, e));
+                }
+                return;
+            }
+
+            synchronized (page) {
+                if (depth <= page.depth) {
+                    return;
+                }
+                page.depth = depth;
+            }
+            walk(url, page);
+        }
+
+        private void downloaded(final String url, final Page page, final Document doc, final Throwable e) {
+            if (e instanceof IOException ioe) {
+                errors.put(url, ioe);
+            } else if (e != null) {
+                done.completeExceptionally(e);
+            } else {
+                downloaded.add(url);
+                synchronized (page) {
+                    page.document = doc;
+                }
+                walk(url, page);
+            }
+        }
+
+        private void walk(final String url, final Page page) {
+            final int depth;
+            final CompletableFuture<List<String>> links;
+            synchronized (page) {
+                depth = page.depth;
+                if (page.document == null || depth <= 1 || depth <= page.walked) {
+                    return;
+                }
+                page.walked = depth;
+                if (page.links == null) {
+                    final Document doc = page.document;
+                    page.links = CompletableFuture.supplyAsync(() -> getLinks(errors, doc, url), extractService);
+                }
+                links = page.links;
+            }
+
+            await(links, (ls, e) -> {
+                if (e != null) {
+                    done.completeExceptionally(e);
+                } else if (page.isWalkedWith(depth)) {
+                    // otherwise the links are walked again with a better depth
+                    ls.forEach(link -> visit(link, depth - 1));
+                }
+            });
+        }
+    }
+
     private Result downloadSiteLimits(final String url, final int depth, final Predicate<String> allowURL, final Predicate<String> allowHost) {
         if (depth < 1) {
             throw new IllegalArgumentException("Depth should be >= 1");
         }
 
-        return sneakyCallable(() -> bfsDownload(url, depth, allowURL, allowHost));
+        return sneakyCallable(() -> pipelined
+                ? new Crawl(allowURL, allowHost).run(url, depth)
+                : bfsDownload(url, depth, allowURL, allowHost));
     }
 
     /**
@@ -257,7 +564,7 @@ public class WebCrawler implements AdvancedCrawler {
 
     @Override
     public void close() {
-        downloadService.close();
+        downloadScheduler.close();
         extractService.close();
     }
 
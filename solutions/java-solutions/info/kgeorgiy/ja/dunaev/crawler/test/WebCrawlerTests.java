@@ -0,0 +1,148 @@
+package info.kgeorgiy.ja.dunaev.crawler.test;
+
+import info.kgeorgiy.ja.dunaev.crawler.WebCrawler;
+import info.kgeorgiy.java.advanced.crawler.Document;
+import info.kgeorgiy.java.advanced.crawler.Downloader;
+import info.kgeorgiy.java.advanced.crawler.Result;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Tests that the pipelined and the virtual threads modes of {@link WebCrawler}
+ * download the same pages as the layer by layer mode and respect the limitations.
+ *
+ * @author Dunaev Kirill
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class WebCrawlerTests {
+    private static final Random RANDOM = new Random(297562875629470103L);
+    private static final int HOSTS = 4;
+    private static final int PAGES = 300;
+    private static final int LINKS = 4;
+    private static final int[] DEPTHS = {1, 2, 3, 5, 10};
+
+    /**
+     * Synthetic site graph. Some pages fail to download and some fail to extract links.
+     * Records the largest numbers of downloads in parallel, overall and per host.
+     */
+    private static class SiteDownloader implements Downloader {
+        private final Map<String, List<String>> links = new HashMap<>();
+        private final Set<String> brokenLinks = new HashSet<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+        private final Map<String, AtomicInteger> activePerHost = new ConcurrentHashMap<>();
+        private final AtomicInteger maxActivePerHost = new AtomicInteger();
+
+        private SiteDownloader() {
+            for (int page = 0; page < PAGES; page++) {
+                links.put(url(page), IntStream.range(0, LINKS).mapToObj(i -> url(RANDOM.nextInt(PAGES))).toList());
+                if (RANDOM.nextInt(10) == 0) {
+                    brokenLinks.add(url(page));
+                }
+            }
+        }
+
+        private static String url(final int page) {
+            return "http://host%d.test/page%d.html".formatted(page % HOSTS, page);
+        }
+
+        @Override
+        public Document download(final String url) throws IOException {
+            final String host = URI.create(url).getHost();
+            final AtomicInteger hostActive = activePerHost.computeIfAbsent(host, h -> new AtomicInteger());
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            maxActivePerHost.accumulateAndGet(hostActive.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                hostActive.decrementAndGet();
+                active.decrementAndGet();
+            }
+
+            final List<String> pageLinks = links.get(url);
+            if (pageLinks == null) {
+                throw new IOException("Not found: " + url);
+            }
+            final boolean broken = brokenLinks.contains(url);
+            return () -> {
+                if (broken) {
+                    throw new IOException("Broken page: " + url);
+                }
+                return pageLinks;
+            };
+        }
+    }
+
+    private static Result crawl(
+            final Function<Downloader, WebCrawler> factory,
+            final Downloader downloader,
+            final String url,
+            final int depth
+    ) {
+        try (final WebCrawler crawler = factory.apply(downloader)) {
+            return crawler.download(url, depth, Set.of(SiteDownloader.url(1)));
+        }
+    }
+
+    private static void assertSameResult(final Result expected, final Result actual, final String context) {
+        Assertions.assertEquals(Set.copyOf(expected.getDownloaded()), Set.copyOf(actual.getDownloaded()), context);
+        Assertions.assertEquals(expected.getDownloaded().size(), actual.getDownloaded().size(), context);
+        Assertions.assertEquals(expected.getErrors().keySet(), actual.getErrors().keySet(), context);
+    }
+
+    private static void checkMode(final Function<Downloader, WebCrawler> factory) {
+        final SiteDownloader downloader = new SiteDownloader();
+        for (final int depth : DEPTHS) {
+            for (final String url : List.of(SiteDownloader.url(0), SiteDownloader.url(PAGES + 1))) {
+                final Result expected = crawl(d -> new WebCrawler(d, 10, 10, 10), downloader, url, depth);
+                final Result actual = crawl(factory, downloader, url, depth);
+                assertSameResult(expected, actual, "url = %s, depth = %d".formatted(url, depth));
+            }
+        }
+    }
+
+    @Test
+    public void test01_pipelinedResults() {
+        checkMode(d -> WebCrawler.pipelined(d, 10, 10, 10));
+        checkMode(d -> WebCrawler.pipelined(d, 1, 1, 1));
+    }
+
+    @Test
+    public void test02_virtualThreadsResults() {
+        checkMode(d -> WebCrawler.withVirtualThreads(d, 10, 10, 10));
+        checkMode(d -> WebCrawler.withVirtualThreads(d, 1, 1, 1));
+    }
+
+    @Test
+    public void test03_virtualThreadsLimits() {
+        for (final int downloaders : new int[]{1, 3, 100}) {
+            for (final int perHost : new int[]{1, 2, 100}) {
+                final SiteDownloader downloader = new SiteDownloader();
+                final Function<Downloader, WebCrawler> factory =
+                        d -> WebCrawler.withVirtualThreads(d, downloaders, 10, perHost);
+                crawl(factory, downloader, SiteDownloader.url(0), 10);
+                final String context = "downloaders = %d, perHost = %d".formatted(downloaders, perHost);
+                Assertions.assertTrue(
+                        downloader.maxActive.get() <= downloaders,
+                        "Downloaders limit exceeded: %d, %s".formatted(downloader.maxActive.get(), context)
+                );
+                Assertions.assertTrue(
+                        downloader.maxActivePerHost.get() <= perHost,
+                        "Per host limit exceeded: %d, %s".formatted(downloader.maxActivePerHost.get(), context)
+                );
+            }
+        }
+    }
+}
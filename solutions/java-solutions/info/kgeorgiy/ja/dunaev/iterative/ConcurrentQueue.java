@@ -2,6 +2,7 @@ package info.kgeorgiy.ja.dunaev.iterative;
 
 import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -10,7 +11,7 @@ import java.util.function.Consumer;
  * @param <T> type of the stored elements
  * @author Dunaev Kirill
  */
-public class ConcurrentQueue<T> {
+public class ConcurrentQueue<T> implements TaskQueue<T> {
     private final Queue<T> storage = new ArrayDeque<>(CAPACITY);
     private static final int CAPACITY = 1 << 20;
 
@@ -27,6 +28,7 @@ public class ConcurrentQueue<T> {
      * @param element an element to add
      * @throws InterruptedException if this thread is interrupted
      */
+    @Override
     public synchronized void add(T element) throws InterruptedException {
         while (storage.size() >= CAPACITY) {
             wait();
@@ -51,11 +53,40 @@ public class ConcurrentQueue<T> {
         return elem;
     }
 
+    /**
+     * {@inheritDoc}
+     * Same as {@link #poll()}: all workers share the queue.
+     */
+    @Override
+    public T poll(final int worker) throws InterruptedException {
+        return poll();
+    }
+
+    /**
+     * {@inheritDoc}
+     * All workers share the queue.
+     */
+    @Override
+    public synchronized T poll(final int worker, final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (storage.isEmpty()) {
+            final long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        final T elem = storage.poll();
+        notifyAll();
+        return elem;
+    }
+
     /**
      * Applies the given consumer to all elements in the queue.
      *
      * @param consumer the consumer to apply
      */
+    @Override
     public synchronized void forEach(Consumer<T> consumer) {
         storage.forEach(consumer);
     }
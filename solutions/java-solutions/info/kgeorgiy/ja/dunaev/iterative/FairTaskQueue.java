@@ -0,0 +1,106 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safety unbounded queue of the tasks, which is fair across the {@code map} calls.
+ * Tasks are grouped into per-call queues by their {@link Task#manager() manager},
+ * and workers take tasks from the calls in round-robin order, so a small call does not wait behind
+ * all tasks of a huge one, but at most one task of every other call.
+ * <p>
+ * Calls of greater {@link Task#priority() priority} are served first, so lower priorities
+ * are delayed while there are tasks of a greater one.
+ *
+ * @author Dunaev Kirill
+ */
+public class FairTaskQueue implements TaskQueue<Task<?>> {
+    // priority levels from the most urgent, each is a ring of the calls having queued tasks
+    private final NavigableMap<Integer, Deque<Queue<Task<?>>>> levels = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<TasksManager<?>, Queue<Task<?>>> calls = new HashMap<>();
+    private int size;
+
+    /**
+     * Creates empty queue.
+     */
+    public FairTaskQueue() {
+    }
+
+    /**
+     * Adds a task to the queue of its call.
+     *
+     * @param task a task to add
+     */
+    @Override
+    public synchronized void add(final Task<?> task) {
+        calls.computeIfAbsent(task.manager(), manager -> {
+            final Queue<Task<?>> call = new ArrayDeque<>();
+            levels.computeIfAbsent(task.priority(), priority -> new ArrayDeque<>()).addLast(call);
+            return call;
+        }).add(task);
+        size++;
+        notify();
+    }
+
+    /**
+     * Retrieves and removes the next task of the most urgent priority in round-robin order of the calls.
+     * This is blocking operation: the method waits until the queue is not empty.
+     * All workers share the queue.
+     *
+     * @param worker index of the worker
+     * @return retrieved task
+     * @throws InterruptedException if this thread is interrupted
+     */
+    @Override
+    public synchronized Task<?> poll(final int worker) throws InterruptedException {
+        while (size == 0) {
+            wait();
+        }
+        return take();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The task is chosen as in {@link #poll(int)}.
+     */
+    @Override
+    public synchronized Task<?> poll(final int worker, final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (size == 0) {
+            final long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return take();
+    }
+
+    private Task<?> take() {
+        final Map.Entry<Integer, Deque<Queue<Task<?>>>> level = levels.firstEntry();
+        final Deque<Queue<Task<?>>> ring = level.getValue();
+        final Queue<Task<?>> call = ring.pollFirst();
+        final Task<?> task = call.poll();
+        if (call.isEmpty()) {
+            calls.remove(task.manager());
+            if (ring.isEmpty()) {
+                levels.remove(level.getKey());
+            }
+        } else {
+            ring.addLast(call);
+        }
+        size--;
+        return task;
+    }
+
+    /**
+     * Applies the given consumer to all tasks in the queue.
+     *
+     * @param consumer the consumer to apply
+     */
+    @Override
+    public synchronized void forEach(final Consumer<Task<?>> consumer) {
+        calls.values().forEach(call -> call.forEach(consumer));
+    }
+}
@@ -0,0 +1,203 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.io.Serial;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Scaling benchmark of the {@link IterativeParallelism} and {@link ParallelMapperImpl}.
+ * Each case is warmed up and then run repeatedly, average time per operation is reported.
+ * Results are printed as CSV: {@code benchmark,mode,threads,size,step,us/op}, so scaling curves can be plotted directly.
+ * <p>
+ * The following cases are measured:
+ * <ul>
+ *     <li>{@link IterativeParallelism} operations across thread counts, list sizes and steps,
+ *     with own platform threads, own virtual threads and a {@link ParallelMapperImpl};</li>
+ *     <li>{@link ParallelMapperImpl} throughput of cheap and expensive functions;</li>
+ *     <li>the same maximum and sum computed by {@link ForkJoinPool} and parallel streams as baselines.</li>
+ * </ul>
+ *
+ * @author Dunaev Kirill
+ */
+public class IterativeBenchmark {
+    private static final int DEFAULT_MAX_THREADS = 2 * Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_MAX_SIZE = 1_000_000;
+    private static final int[] STEPS = {1, 4};
+    private static final int EXPENSIVE_SPINS = 10_000;
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+
+    // consumes results, so that the operations are not optimized out
+    private static int blackhole;
+
+    private IterativeBenchmark() {
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws InterruptedException;
+    }
+
+    private static void measure(
+            final String benchmark,
+            final String mode,
+            final int threads,
+            final int size,
+            final int step,
+            final Operation operation
+    ) throws InterruptedException {
+        runFor(WARMUP_NANOS, operation);
+        final long start = System.nanoTime();
+        final long operations = runFor(MEASURE_NANOS, operation);
+        final long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "%s,%s,%d,%d,%d,%.1f%n", benchmark, mode, threads, size, step, elapsed / 1e3 / operations);
+    }
+
+    private static long runFor(final long nanos, final Operation operation) throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        long operations = 0;
+        do {
+            blackhole += Objects.hashCode(operation.run());
+            ++operations;
+        } while (System.nanoTime() < deadline);
+        return operations;
+    }
+
+    private static int expensive(final int value) {
+        int result = value;
+        for (int i = 0; i < EXPENSIVE_SPINS; i++) {
+            result = result * 31 + i;
+        }
+        return result;
+    }
+
+    private static void iterative(
+            final String mode,
+            final IterativeParallelism parallelism,
+            final int threads,
+            final List<Integer> values,
+            final int[] primitives
+    ) throws InterruptedException {
+        for (final int step : STEPS) {
+            final int size = values.size();
+            measure("maximum", mode, threads, size, step, () -> parallelism.maximum(threads, values, Integer::compare, step));
+            measure("count", mode, threads, size, step, () -> parallelism.count(threads, values, v -> v % 3 == 0, step));
+            measure("filter", mode, threads, size, step, () -> parallelism.filter(threads, values, v -> v % 3 == 0, step));
+            measure("mapReduce", mode, threads, size, step, () -> parallelism.mapReduce(threads, values, v -> v & 0xFF, 0, Integer::sum, step));
+            measure("reduceInt", mode, threads, size, step, () -> parallelism.reduce(threads, primitives, 0, Integer::sum, step));
+        }
+    }
+
+    private static void mapper(final int threads, final List<Integer> values) throws InterruptedException {
+        try (final ParallelMapperImpl mapper = new ParallelMapperImpl(threads)) {
+            measure("mapCheap", "mapper", threads, values.size(), 1, () -> mapper.map(v -> v + 1, values));
+            final List<Integer> expensiveValues = values.subList(0, Math.min(values.size(), 10_000));
+            measure("mapExpensive", "mapper", threads, expensiveValues.size(), 1, () -> mapper.map(IterativeBenchmark::expensive, expensiveValues));
+        }
+    }
+
+    private static void baselines(final int threads, final List<Integer> values) throws InterruptedException {
+        final int size = values.size();
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            measure("maximum", "forkJoin", threads, size, 1, () -> pool.invoke(new MaximumTask(values, 0, size, size / (4 * threads) + 1)));
+            // parallel streams run in the pool of the task that started them, so the pool limits their threads
+            measure("maximum", "parallelStream", threads, size, 1, () -> pool.submit(
+                    () -> values.parallelStream().max(Integer::compare).orElse(null)
+            ).join());
+            measure("mapReduce", "parallelStream", threads, size, 1, () -> pool.submit(
+                    () -> values.parallelStream().mapToInt(v -> v & 0xFF).sum()
+            ).join());
+            final List<Integer> expensiveValues = values.subList(0, Math.min(size, 10_000));
+            measure("mapExpensive", "parallelStream", threads, expensiveValues.size(), 1, () -> pool.submit(
+                    () -> expensiveValues.parallelStream().map(IterativeBenchmark::expensive).toList()
+            ).join());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class MaximumTask extends RecursiveTask<Integer> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Integer> values;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        private MaximumTask(final List<Integer> values, final int from, final int to, final int threshold) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= threshold) {
+                int max = Integer.MIN_VALUE;
+                for (int i = from; i < to; i++) {
+                    max = Math.max(max, values.get(i));
+                }
+                return max;
+            }
+            final int middle = (from + to) >>> 1;
+            final MaximumTask left = new MaximumTask(values, from, middle, threshold);
+            left.fork();
+            final int right = new MaximumTask(values, middle, to, threshold).compute();
+            return Math.max(left.join(), right);
+        }
+    }
+
+    private static List<Integer> threadCounts(final int maxThreads) {
+        final List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    /**
+     * Runs the benchmark and prints results.
+     * Usage: <pre>{@code IterativeBenchmark [maxThreads [maxSize]]}</pre>
+     * Thread counts are powers of two up to the maximum, sizes are powers of ten from a thousand up to the maximum.
+     * Default values are twice the number of available processors and {@value DEFAULT_MAX_SIZE} elements.
+     *
+     * @param args command line arguments
+     */
+    public static void main(final String[] args) {
+        Objects.requireNonNull(args);
+        Arrays.stream(args).forEach(Objects::requireNonNull);
+
+        try {
+            final int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_THREADS;
+            final int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SIZE;
+            IterativeParallelism.assertPositive(maxThreads);
+
+            final Random random = new Random(0);
+            System.out.println("benchmark,mode,threads,size,step,us/op");
+            for (int size = 1_000; size <= maxSize; size *= 10) {
+                final int[] primitives = random.ints(size).toArray();
+                final List<Integer> values = IntStream.of(primitives).boxed().toList();
+                for (final int threads : threadCounts(maxThreads)) {
+                    iterative("platform", new IterativeParallelism(), threads, values, primitives);
+                    iterative("virtual", IterativeParallelism.withVirtualThreads(), threads, values, primitives);
+                    try (final ParallelMapperImpl mapper = new ParallelMapperImpl(threads)) {
+                        iterative("mapper", new IterativeParallelism(mapper), threads, values, primitives);
+                    }
+                    mapper(threads, values);
+                    baselines(threads, values);
+                }
+            }
+        } catch (final IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Bad benchmark arguments: " + e.getMessage());
+            System.err.println("Usage: IterativeBenchmark [maxThreads [maxSize]]");
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
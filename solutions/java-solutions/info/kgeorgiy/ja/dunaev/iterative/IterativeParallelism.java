@@ -4,6 +4,8 @@ import info.kgeorgiy.java.advanced.iterative.AdvancedIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.*;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -18,12 +20,24 @@ import java.util.stream.Stream;
  */
 public class IterativeParallelism implements AdvancedIP {
     private final ParallelMapper mapper;
+    private final ThreadFactory threadFactory;
 
     /**
-     * Constructs class that will create threads itself.
+     * Constructs class that will create platform threads itself.
      */
     public IterativeParallelism() {
-        mapper = null;
+        this(Thread::new);
+    }
+
+    /**
+     * Constructs class that will create threads itself using the given factory.
+     * For example, virtual threads factory may be used, see {@link #withVirtualThreads()}.
+     *
+     * @param threadFactory factory of the threads processing blocks
+     */
+    public IterativeParallelism(ThreadFactory threadFactory) {
+        this.mapper = null;
+        this.threadFactory = Objects.requireNonNull(threadFactory);
     }
 
     /**
@@ -34,6 +48,18 @@ public class IterativeParallelism implements AdvancedIP {
      */
     public IterativeParallelism(ParallelMapper mapper) {
         this.mapper = mapper;
+        this.threadFactory = null;
+    }
+
+    /**
+     * Constructs class that will process blocks in virtual threads.
+     * Virtual threads are run by the shared lazily created carrier pool,
+     * so frequent calls do not pay for platform threads creation.
+     *
+     * @return class using virtual threads
+     */
+    public static IterativeParallelism withVirtualThreads() {
+        return new IterativeParallelism(Thread.ofVirtual().factory());
     }
 
     @Override
@@ -43,8 +69,19 @@ public class IterativeParallelism implements AdvancedIP {
             final Comparator<? super T> comparator,
             final int step
     ) throws InterruptedException {
-        Function<Stream<? extends T>, T> f = v -> v.max(comparator).orElse(null);
-        return parallelTask(threads, step, values, f, f);
+        return parallelTask(
+                threads, step, values,
+                v -> {
+                    T max = v.getFirst();
+                    for (final T value : v) {
+                        if (comparator.compare(value, max) > 0) {
+                            max = value;
+                        }
+                    }
+                    return max;
+                },
+                v -> v.reduce(BinaryOperator.maxBy(comparator)).orElse(null)
+        );
     }
 
     @Override
@@ -57,6 +94,10 @@ public class IterativeParallelism implements AdvancedIP {
         return maximum(threads, values, comparator.reversed(), step);
     }
 
+    /**
+     * {@inheritDoc}
+     * Processing stops as soon as any thread finds a value not satisfying the predicate.
+     */
     @Override
     public <T> boolean all(
             final int threads,
@@ -64,13 +105,13 @@ public class IterativeParallelism implements AdvancedIP {
             final Predicate<? super T> predicate,
             final int step
     ) throws InterruptedException {
-        return parallelTask(
-                threads, step, values,
-                v -> v.allMatch(predicate),
-                v -> v.reduce(true, Boolean::logicalAnd)
-        );
+        return findIndex(threads, nthElements(values, step), predicate.negate(), false) < 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * Processing stops as soon as any thread finds a value satisfying the predicate.
+     */
     @Override
     public <T> boolean any(
             final int threads,
@@ -78,7 +119,81 @@ public class IterativeParallelism implements AdvancedIP {
             final Predicate<? super T> predicate,
             final int step
     ) throws InterruptedException {
-        return !all(threads, values, predicate.negate(), step);
+        return findIndex(threads, nthElements(values, step), predicate, false) >= 0;
+    }
+
+    /**
+     * Returns the first of every {@code step}-th values satisfying the predicate.
+     * Thread stops processing its block as soon as a satisfying value is found before the current one.
+     *
+     * @param threads   number of concurrent threads
+     * @param values    values to test
+     * @param predicate test predicate
+     * @param step      step size
+     * @param <T>       value type
+     * @return the first satisfying value or empty optional if there is no such value
+     * @throws InterruptedException if executing thread was interrupted
+     * @throws NullPointerException if the found value is {@code null}
+     */
+    public <T> Optional<T> findFirst(
+            final int threads,
+            final List<? extends T> values,
+            final Predicate<? super T> predicate,
+            final int step
+    ) throws InterruptedException {
+        final List<? extends T> nth = nthElements(values, step);
+        final int index = findIndex(threads, nth, predicate, true);
+        return index < 0 ? Optional.empty() : Optional.of(nth.get(index));
+    }
+
+    /**
+     * Returns any of every {@code step}-th values satisfying the predicate.
+     * Processing stops as soon as any thread finds a satisfying value.
+     *
+     * @param threads   number of concurrent threads
+     * @param values    values to test
+     * @param predicate test predicate
+     * @param step      step size
+     * @param <T>       value type
+     * @return some satisfying value or empty optional if there is no such value
+     * @throws InterruptedException if executing thread was interrupted
+     * @throws NullPointerException if the found value is {@code null}
+     */
+    public <T> Optional<T> findAny(
+            final int threads,
+            final List<? extends T> values,
+            final Predicate<? super T> predicate,
+            final int step
+    ) throws InterruptedException {
+        final List<? extends T> nth = nthElements(values, step);
+        final int index = findIndex(threads, nth, predicate, false);
+        return index < 0 ? Optional.empty() : Optional.of(nth.get(index));
+    }
+
+    private <T> int findIndex(
+            final int threads,
+            final List<? extends T> nth,
+            final Predicate<? super T> predicate,
+            final boolean first
+    ) throws InterruptedException {
+        // the least found index, values after it are not interesting for anyone
+        final AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+        final IntPredicate needed = first ? i -> i < found.get() : i -> found.get() == Integer.MAX_VALUE;
+        segmentTask(
+                threads, 1, nth.size(),
+                first ? () -> false : () -> found.get() != Integer.MAX_VALUE,
+                s -> {
+                    for (int i = s.from(); i < s.to() && needed.test(i); i++) {
+                        if (predicate.test(nth.get(i))) {
+                            found.accumulateAndGet(i, Math::min);
+                            break;
+                        }
+                    }
+                    return null;
+                },
+                v -> null
+        );
+        return found.get() == Integer.MAX_VALUE ? -1 : found.get();
     }
 
     @Override
@@ -90,8 +205,16 @@ public class IterativeParallelism implements AdvancedIP {
     ) throws InterruptedException {
         return parallelTask(
                 threads, step, values,
-                v -> (int) v.filter(predicate).count(),
-                v -> v.reduce(Integer::sum).orElse(0)
+                v -> {
+                    int result = 0;
+                    for (final T value : v) {
+                        if (predicate.test(value)) {
+                            result++;
+                        }
+                    }
+                    return result;
+                },
+                v -> v.reduce(0, Integer::sum)
         );
     }
 
@@ -101,11 +224,16 @@ public class IterativeParallelism implements AdvancedIP {
             final List<?> values,
             final int step
     ) throws InterruptedException {
-        Function<Stream<String>, String> joiner = v -> v.collect(Collectors.joining());
         return parallelTask(
                 threads, step, values,
-                v -> joiner.apply(v.map(Object::toString)),
-                joiner
+                v -> {
+                    final StringBuilder result = new StringBuilder();
+                    for (final Object value : v) {
+                        result.append(value);
+                    }
+                    return result.toString();
+                },
+                v -> v.collect(Collectors.joining())
         );
     }
 
@@ -116,7 +244,11 @@ public class IterativeParallelism implements AdvancedIP {
             final Predicate<? super T> predicate,
             final int step
     ) throws InterruptedException {
-        return listParallelTask(threads, step, values, v -> v.filter(predicate));
+        return listParallelTask(threads, step, values, (value, result) -> {
+            if (predicate.test(value)) {
+                result.add(value);
+            }
+        });
     }
 
     @Override
@@ -126,7 +258,7 @@ public class IterativeParallelism implements AdvancedIP {
             final Function<? super T, ? extends U> f,
             final int step
     ) throws InterruptedException {
-        return listParallelTask(threads, step, values, v -> v.map(f));
+        return listParallelTask(threads, step, values, (value, result) -> result.add(f.apply(value)));
     }
 
     @Override
@@ -149,11 +281,404 @@ public class IterativeParallelism implements AdvancedIP {
             BinaryOperator<R> operator,
             int step
     ) throws InterruptedException {
-        Function<? super Stream<R>, R> reducer = v -> v.reduce(identity, operator);
         return parallelTask(
                 threads, step, values,
-                v -> reducer.apply(v.map(lift)),
-                reducer
+                v -> {
+                    R result = identity;
+                    for (final T value : v) {
+                        result = operator.apply(result, lift.apply(value));
+                    }
+                    return result;
+                },
+                v -> v.reduce(identity, operator)
+        );
+    }
+
+    /**
+     * Computes inclusive prefix reductions of every {@code step}-th value.
+     * Blocks are reduced in parallel, then each block is scanned in parallel starting from the reduction of the previous blocks.
+     *
+     * @param threads  number of concurrent threads
+     * @param values   values to scan
+     * @param identity neutral element of the operator
+     * @param operator associative operator to use
+     * @param step     step size
+     * @param <T>      value type
+     * @return list, which {@code i}-th element is reduction of the first {@code i + 1} values
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public <T> List<T> scan(
+            final int threads,
+            final List<T> values,
+            final T identity,
+            final BinaryOperator<T> operator,
+            final int step
+    ) throws InterruptedException {
+        final List<T> nth = nthElements(values, step);
+        final List<Segment> segments = split(threads, 1, nth.size());
+        final List<T> reductions = runAll(
+                s -> {
+                    T result = identity;
+                    for (int i = s.from(); i < s.to(); i++) {
+                        result = operator.apply(result, nth.get(i));
+                    }
+                    return result;
+                },
+                segments,
+                () -> false
+        );
+
+        final List<T> offsets = new ArrayList<>(segments.size());
+        T offset = identity;
+        for (final T reduction : reductions) {
+            offsets.add(offset);
+            offset = operator.apply(offset, reduction);
+        }
+
+        @SuppressWarnings("unchecked")
+        final List<T> result = Arrays.asList((T[]) new Object[nth.size()]);
+        runAll(
+                k -> {
+                    T current = offsets.get(k);
+                    for (int i = segments.get(k).from(); i < segments.get(k).to(); i++) {
+                        current = operator.apply(current, nth.get(i));
+                        result.set(i, current);
+                    }
+                    return null;
+                },
+                IntStream.range(0, segments.size()).boxed().toList(),
+                () -> false
+        );
+        return result;
+    }
+
+    /**
+     * Sorts every {@code step}-th value by parallel merge sort.
+     * Blocks are sorted in parallel, then sorted blocks are merged pairwise in parallel rounds.
+     * The sort is stable.
+     *
+     * @param threads    number of concurrent threads
+     * @param values     values to sort
+     * @param comparator value comparator
+     * @param step       step size
+     * @param <T>        value type
+     * @return sorted values
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public <T> List<T> sort(
+            final int threads,
+            final List<? extends T> values,
+            final Comparator<? super T> comparator,
+            final int step
+    ) throws InterruptedException {
+        final List<? extends T> nth = nthElements(values, step);
+        if (nth.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final List<List<T>> sorted = runAll(
+                s -> {
+                    final List<T> block = new ArrayList<>(nth.subList(s.from(), s.to()));
+                    block.sort(comparator);
+                    return block;
+                },
+                split(threads, 1, nth.size()),
+                () -> false
+        );
+        return combine(sorted, (left, right) -> merge(left, right, comparator));
+    }
+
+    private static <T> List<T> merge(final List<T> left, final List<T> right, final Comparator<? super T> comparator) {
+        final List<T> result = new ArrayList<>(left.size() + right.size());
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            // ties are taken from the left to keep the sort stable
+            result.add(comparator.compare(right.get(j), left.get(i)) < 0 ? right.get(j++) : left.get(i++));
+        }
+        result.addAll(left.subList(i, left.size()));
+        result.addAll(right.subList(j, right.size()));
+        return result;
+    }
+
+    /**
+     * Groups every {@code step}-th value by the classifier.
+     * Each block is grouped into its own map, then maps are combined pairwise in parallel rounds.
+     *
+     * @param threads    number of concurrent threads
+     * @param values     values to group
+     * @param classifier function mapping values to keys
+     * @param step       step size
+     * @param <T>        value type
+     * @param <K>        key type
+     * @return map from keys to the lists of values, values are in the source order
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public <T, K> Map<K, List<T>> groupingBy(
+            final int threads,
+            final List<? extends T> values,
+            final Function<? super T, ? extends K> classifier,
+            final int step
+    ) throws InterruptedException {
+        final List<? extends T> nth = nthElements(values, step);
+        if (nth.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        final List<Map<K, List<T>>> groups = runAll(
+                s -> {
+                    final Map<K, List<T>> block = new HashMap<>();
+                    for (final T value : nth.subList(s.from(), s.to())) {
+                        block.computeIfAbsent(classifier.apply(value), key -> new ArrayList<>()).add(value);
+                    }
+                    return block;
+                },
+                split(threads, 1, nth.size()),
+                () -> false
+        );
+        return combine(groups, (left, right) -> {
+            right.forEach((key, group) -> left.merge(key, group, (a, b) -> {
+                a.addAll(b);
+                return a;
+            }));
+            return left;
+        });
+    }
+
+    /**
+     * Reduces every {@code step}-th value of the array with the given operator.
+     * Values are processed without boxing, so this is cheaper than {@link #reduce(int, List, Object, BinaryOperator, int)}.
+     *
+     * @param threads  number of concurrent threads
+     * @param values   values to reduce
+     * @param identity neutral element of the operator
+     * @param operator associative operator to use
+     * @param step     step size
+     * @return values reduced by the operator
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public int reduce(
+            final int threads,
+            final int[] values,
+            final int identity,
+            final IntBinaryOperator operator,
+            final int step
+    ) throws InterruptedException {
+        return segmentTask(
+                threads, step, values.length,
+                s -> {
+                    int result = identity;
+                    // positions are long, so that adding a large step to the last position does not overflow
+                    for (long i = s.from(); i < s.to(); i += step) {
+                        result = operator.applyAsInt(result, values[(int) i]);
+                    }
+                    return result;
+                },
+                v -> v.reduce(identity, operator::applyAsInt)
+        );
+    }
+
+    /**
+     * Reduces every {@code step}-th value of the array with the given operator.
+     * Values are processed without boxing, so this is cheaper than {@link #reduce(int, List, Object, BinaryOperator, int)}.
+     *
+     * @param threads  number of concurrent threads
+     * @param values   values to reduce
+     * @param identity neutral element of the operator
+     * @param operator associative operator to use
+     * @param step     step size
+     * @return values reduced by the operator
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public long reduce(
+            final int threads,
+            final long[] values,
+            final long identity,
+            final LongBinaryOperator operator,
+            final int step
+    ) throws InterruptedException {
+        return segmentTask(
+                threads, step, values.length,
+                s -> {
+                    long result = identity;
+                    for (long i = s.from(); i < s.to(); i += step) {
+                        result = operator.applyAsLong(result, values[(int) i]);
+                    }
+                    return result;
+                },
+                v -> v.reduce(identity, operator::applyAsLong)
+        );
+    }
+
+    /**
+     * Reduces every {@code step}-th value of the array with the given operator.
+     * Values are processed without boxing, so this is cheaper than {@link #reduce(int, List, Object, BinaryOperator, int)}.
+     * Note that floating-point addition is not associative, so the result may depend on the number of threads.
+     *
+     * @param threads  number of concurrent threads
+     * @param values   values to reduce
+     * @param identity neutral element of the operator
+     * @param operator associative operator to use
+     * @param step     step size
+     * @return values reduced by the operator
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public double reduce(
+            final int threads,
+            final double[] values,
+            final double identity,
+            final DoubleBinaryOperator operator,
+            final int step
+    ) throws InterruptedException {
+        return segmentTask(
+                threads, step, values.length,
+                s -> {
+                    double result = identity;
+                    for (long i = s.from(); i < s.to(); i += step) {
+                        result = operator.applyAsDouble(result, values[(int) i]);
+                    }
+                    return result;
+                },
+                v -> v.reduce(identity, operator::applyAsDouble)
+        );
+    }
+
+    /**
+     * Returns maximum of every {@code step}-th value of the array.
+     *
+     * @param threads number of concurrent threads
+     * @param values  values to find maximum in
+     * @param step    step size
+     * @return maximum value or empty optional if there are no values
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public OptionalInt maximum(final int threads, final int[] values, final int step) throws InterruptedException {
+        return values.length == 0
+                ? OptionalInt.empty()
+                : OptionalInt.of(reduce(threads, values, Integer.MIN_VALUE, Math::max, step));
+    }
+
+    /**
+     * Returns maximum of every {@code step}-th value of the array.
+     *
+     * @param threads number of concurrent threads
+     * @param values  values to find maximum in
+     * @param step    step size
+     * @return maximum value or empty optional if there are no values
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public OptionalLong maximum(final int threads, final long[] values, final int step) throws InterruptedException {
+        return values.length == 0
+                ? OptionalLong.empty()
+                : OptionalLong.of(reduce(threads, values, Long.MIN_VALUE, Math::max, step));
+    }
+
+    /**
+     * Returns maximum of every {@code step}-th value of the array.
+     * As in {@link Math#max(double, double)}, the result is {@code NaN} if any of the values is {@code NaN}.
+     *
+     * @param threads number of concurrent threads
+     * @param values  values to find maximum in
+     * @param step    step size
+     * @return maximum value or empty optional if there are no values
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public OptionalDouble maximum(final int threads, final double[] values, final int step) throws InterruptedException {
+        return values.length == 0
+                ? OptionalDouble.empty()
+                : OptionalDouble.of(reduce(threads, values, Double.NEGATIVE_INFINITY, Math::max, step));
+    }
+
+    /**
+     * Returns number of every {@code step}-th values of the array satisfying the predicate.
+     *
+     * @param threads   number of concurrent threads
+     * @param values    values to test
+     * @param predicate test predicate
+     * @param step      step size
+     * @return number of values satisfying the predicate
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public int count(
+            final int threads,
+            final int[] values,
+            final IntPredicate predicate,
+            final int step
+    ) throws InterruptedException {
+        return segmentTask(
+                threads, step, values.length,
+                s -> {
+                    int result = 0;
+                    for (long i = s.from(); i < s.to(); i += step) {
+                        if (predicate.test(values[(int) i])) {
+                            result++;
+                        }
+                    }
+                    return result;
+                },
+                v -> v.reduce(0, Integer::sum)
+        );
+    }
+
+    /**
+     * Returns number of every {@code step}-th values of the array satisfying the predicate.
+     *
+     * @param threads   number of concurrent threads
+     * @param values    values to test
+     * @param predicate test predicate
+     * @param step      step size
+     * @return number of values satisfying the predicate
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public int count(
+            final int threads,
+            final long[] values,
+            final LongPredicate predicate,
+            final int step
+    ) throws InterruptedException {
+        return segmentTask(
+                threads, step, values.length,
+                s -> {
+                    int result = 0;
+                    for (long i = s.from(); i < s.to(); i += step) {
+                        if (predicate.test(values[(int) i])) {
+                            result++;
+                        }
+                    }
+                    return result;
+                },
+                v -> v.reduce(0, Integer::sum)
+        );
+    }
+
+    /**
+     * Returns number of every {@code step}-th values of the array satisfying the predicate.
+     *
+     * @param threads   number of concurrent threads
+     * @param values    values to test
+     * @param predicate test predicate
+     * @param step      step size
+     * @return number of values satisfying the predicate
+     * @throws InterruptedException if executing thread was interrupted
+     */
+    public int count(
+            final int threads,
+            final double[] values,
+            final DoublePredicate predicate,
+            final int step
+    ) throws InterruptedException {
+        return segmentTask(
+                threads, step, values.length,
+                s -> {
+                    int result = 0;
+                    for (long i = s.from(); i < s.to(); i += step) {
+                        if (predicate.test(values[(int) i])) {
+                            result++;
+                        }
+                    }
+                    return result;
+                },
+                v -> v.reduce(0, Integer::sum)
         );
     }
 
@@ -161,11 +686,17 @@ public class IterativeParallelism implements AdvancedIP {
             final int threads,
             final int step,
             final List<? extends T> values,
-            final Function<? super Stream<? extends T>, Stream<? extends R>> function
+            final BiConsumer<? super T, List<R>> function
     ) throws InterruptedException {
         return parallelTask(
                 threads, step, values,
-                v -> function.apply(v).collect(Collectors.<R, List<R>>toCollection(ArrayList::new)),
+                v -> {
+                    final List<R> result = new ArrayList<>();
+                    for (final T value : v) {
+                        function.accept(value, result);
+                    }
+                    return result;
+                },
                 v -> v.flatMap(List::stream).toList()
         );
     }
@@ -174,35 +705,112 @@ public class IterativeParallelism implements AdvancedIP {
             final int threads,
             final int step,
             final List<T> values,
-            final Function<? super Stream<T>, R> processor,
+            final Function<? super List<T>, R> processor,
+            final Function<? super Stream<R>, R> finisher
+    ) throws InterruptedException {
+        final List<T> nth = nthElements(values, step);
+        return segmentTask(threads, 1, nth.size(), s -> processor.apply(nth.subList(s.from(), s.to())), finisher);
+    }
+
+    /**
+     * Returns random access list of every {@code step}-th value.
+     * {@link RandomAccess} lists are viewed without copying, as their elements are not worth iterating over.
+     * So are other {@link AbstractList AbstractLists} except sequential ones, as they iterate by indexed access anyway.
+     * Other lists, such as {@link LinkedList}, are copied by a single iteration.
+     */
+    private static <T> List<T> nthElements(final List<T> values, final int step) {
+        if (values instanceof RandomAccess) {
+            return step == 1 ? values : new RandomAccessStridedList<>(values, step);
+        }
+        if (values instanceof AbstractList && !(values instanceof AbstractSequentialList)) {
+            return step == 1 ? values : new StridedList<>(values, step);
+        }
+
+        final List<T> nth = new ArrayList<>(intDivideCeiling(values.size(), step));
+        final ListIterator<T> iterator = values.listIterator();
+        while (iterator.hasNext()) {
+            final boolean taken = iterator.nextIndex() % step == 0;
+            final T value = iterator.next();
+            if (taken) {
+                nth.add(value);
+            }
+        }
+        return nth;
+    }
+
+    private <R> R segmentTask(
+            final int threads,
+            final int step,
+            final int size,
+            final Function<? super Segment, R> processor,
             final Function<? super Stream<R>, R> finisher
     ) throws InterruptedException {
+        return segmentTask(threads, step, size, () -> false, processor, finisher);
+    }
+
+    private <R> R segmentTask(
+            final int threads,
+            final int step,
+            final int size,
+            final BooleanSupplier cancelled,
+            final Function<? super Segment, R> processor,
+            final Function<? super Stream<R>, R> finisher
+    ) throws InterruptedException {
+        final List<R> results = runAll(processor, split(threads, step, size), cancelled);
+        return finisher.apply(results.stream().filter(Objects::nonNull));
+    }
+
+    private static List<Segment> split(final int threads, final int step, final int size) {
         assertPositive(threads);
 
-        final int nthCount = intDivideCeiling(values.size(), step);
+        final int nthCount = intDivideCeiling(size, step);
         final int perThread = nthCount / threads;
         final int rest = nthCount % threads;
 
-        List<Stream<T>> segments = new ArrayList<>();
+        // segment bounds are indices in the source, so each segment starts at its first nth element
+        List<Segment> segments = new ArrayList<>();
         for (int i = 0, now = 0; i < Math.min(nthCount, threads); ++i) {
             int next = checkForRest(now + perThread, rest, i);
-            segments.add(
-                    IntStream.range(now, next)
-                            .map(ind -> ind * step)
-                            .mapToObj(values::get)
-            );
+            segments.add(new Segment(now * step, next == nthCount ? size : next * step));
             now = next;
         }
+        return segments;
+    }
 
-        final List<R> results = mapper == null
-                ? runInParallel(processor, segments)
-                : mapper.map(processor, segments);
-        return finisher.apply(results.stream().filter(Objects::nonNull));
+    private <S, R> List<R> runAll(
+            final Function<? super S, R> processor,
+            final List<S> inputs,
+            final BooleanSupplier cancelled
+    ) throws InterruptedException {
+        // inputs, which are not started by the mapper before the cancellation, are skipped
+        if (mapper == null) {
+            return runInParallel(processor, inputs);
+        } else if (mapper instanceof ParallelMapperImpl cancellableMapper) {
+            return cancellableMapper.map(processor, inputs, cancelled);
+        } else {
+            return mapper.map(processor, inputs);
+        }
     }
 
-    private <T, R> List<R> runInParallel(
-            final Function<? super Stream<T>, R> processor,
-            List<Stream<T>> segments
+    /**
+     * Combines the parts pairwise in parallel rounds, keeping their order, until one part is left.
+     */
+    private <R> R combine(final List<R> parts, final BinaryOperator<R> combiner) throws InterruptedException {
+        List<R> level = parts;
+        while (level.size() > 1) {
+            final List<R> current = level;
+            level = runAll(
+                    i -> 2 * i + 1 < current.size() ? combiner.apply(current.get(2 * i), current.get(2 * i + 1)) : current.get(2 * i),
+                    IntStream.range(0, intDivideCeiling(current.size(), 2)).boxed().toList(),
+                    () -> false
+            );
+        }
+        return level.getFirst();
+    }
+
+    private <S, R> List<R> runInParallel(
+            final Function<? super S, R> processor,
+            List<S> segments
     ) throws InterruptedException {
         final List<R> results = new ArrayList<>();
         final List<Thread> threadList = new ArrayList<>();
@@ -210,7 +818,7 @@ public class IterativeParallelism implements AdvancedIP {
         for (int i = 0; i < segments.size(); ++i) {
             final int index = i;
             results.add(null);
-            threadList.add(new Thread(() -> results.set(index, processor.apply(segments.get(index)))));
+            threadList.add(threadFactory.newThread(() -> results.set(index, processor.apply(segments.get(index)))));
             threadList.getLast().start();
         }
         joinThreads(threadList);
@@ -270,7 +878,38 @@ public class IterativeParallelism implements AdvancedIP {
         return (a + b - 1) / b;
     }
 
-    private int checkForRest(int now, int rest, int ind) {
+    private static int checkForRest(int now, int rest, int ind) {
         return ind < rest ? now + 1 : now;
     }
+
+    private record Segment(int from, int to) {
+    }
+
+    private static class StridedList<T> extends AbstractList<T> {
+        private final List<T> values;
+        private final int step;
+        private final int size;
+
+        private StridedList(final List<T> values, final int step) {
+            this.values = values;
+            this.step = step;
+            this.size = intDivideCeiling(values.size(), step);
+        }
+
+        @Override
+        public T get(final int index) {
+            return values.get(Objects.checkIndex(index, size) * step);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static class RandomAccessStridedList<T> extends StridedList<T> implements RandomAccess {
+        private RandomAccessStridedList(final List<T> values, final int step) {
+            super(values, step);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collector of the {@link ParallelMapperMetrics}.
+ * Recording uses {@link LongAdder} counters only, so workers do not contend with each other.
+ *
+ * @author Dunaev Kirill
+ */
+class MapperMetrics implements ParallelMapperMetrics {
+    private final LongAdder queueDepth = new LongAdder();
+    private final LongAdder[] waitHistogram = newHistogram();
+    private final LongAdder[] runHistogram = newHistogram();
+    private final LongAdder busyTime = new LongAdder();
+    // lifetime of the running workers is their number multiplied by now minus the sum of their start times
+    private final LongAdder stoppedWorkersTime = new LongAdder();
+    private final LongAdder runningWorkers = new LongAdder();
+    private final LongAdder runningWorkersStarts = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final AtomicReference<double[]> stragglerRatios = new AtomicReference<>(new double[]{1, 1});
+
+    private static LongAdder[] newHistogram() {
+        final LongAdder[] histogram = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+        return histogram;
+    }
+
+    void taskSubmitted() {
+        queueDepth.increment();
+    }
+
+    void taskTaken() {
+        queueDepth.decrement();
+    }
+
+    void taskRun(final long waitNanos, final long runNanos) {
+        waitHistogram[bucket(waitNanos)].increment();
+        runHistogram[bucket(runNanos)].increment();
+        busyTime.add(runNanos);
+    }
+
+    void workerStarted(final long startNanos) {
+        runningWorkers.increment();
+        runningWorkersStarts.add(startNanos);
+    }
+
+    void workerStopped(final long startNanos, final long stopNanos) {
+        runningWorkers.decrement();
+        runningWorkersStarts.add(-startNanos);
+        stoppedWorkersTime.add(stopNanos - startNanos);
+    }
+
+    void callCompleted(final double stragglerRatio) {
+        calls.increment();
+        stragglerRatios.updateAndGet(ratios -> new double[]{stragglerRatio, Math.max(ratios[1], stragglerRatio)});
+    }
+
+    private static int bucket(final long nanos) {
+        return Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0));
+    }
+
+    private static long[] snapshot(final LongAdder[] histogram) {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = histogram[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long queueDepth() {
+        return Math.max(queueDepth.sum(), 0);
+    }
+
+    @Override
+    public long[] taskWaitHistogram() {
+        return snapshot(waitHistogram);
+    }
+
+    @Override
+    public long[] taskRunHistogram() {
+        return snapshot(runHistogram);
+    }
+
+    @Override
+    public double utilization() {
+        final long now = System.nanoTime();
+        final long total = stoppedWorkersTime.sum() + runningWorkers.sum() * now - runningWorkersStarts.sum();
+        return total <= 0 ? 0 : Math.min(1, (double) busyTime.sum() / total);
+    }
+
+    @Override
+    public long completedCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public double lastStragglerRatio() {
+        return stragglerRatios.get()[0];
+    }
+
+    @Override
+    public double maxStragglerRatio() {
+        return stragglerRatios.get()[1];
+    }
+}
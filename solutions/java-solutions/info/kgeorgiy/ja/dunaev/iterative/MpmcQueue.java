@@ -0,0 +1,217 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free bounded multi-producer multi-consumer queue, based on the ring buffer of Dmitry Vyukov.
+ * Each cell of the ring has a sequence number, that tells producers and consumers whether the cell
+ * is free or holds an element of the current lap, so both sides only need a single CAS on their index.
+ * <p>
+ * Blocking operations spin, then yield and then park until the other side wakes them up.
+ * Producer and consumer indices are placed far from each other to avoid false sharing.
+ *
+ * @param <T> type of the stored elements
+ * @author Dunaev Kirill
+ */
+public class MpmcQueue<T> implements TaskQueue<T> {
+    // 128 bytes between the indices, which covers adjacent cache lines prefetching
+    private static final int PAD = 16;
+    private static final int PRODUCER = PAD;
+    private static final int CONSUMER = 2 * PAD;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 10;
+
+    private final AtomicLongArray indices = new AtomicLongArray(3 * PAD);
+    private final AtomicLongArray sequences;
+    private final Object[] buffer;
+    private final int mask;
+
+    private final Queue<Thread> waitingProducers = new ConcurrentLinkedQueue<>();
+    private final Queue<Thread> waitingConsumers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates empty queue with the given capacity, rounded up to the power of two, but at least two.
+     * A single cell cannot tell a free cell of the next lap from the occupied cell of the current one.
+     *
+     * @param capacity minimal capacity of the queue
+     * @throws IllegalArgumentException if the capacity is not positive or too large
+     */
+    public MpmcQueue(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Expected capacity in [1, 2^30], found %d".formatted(capacity));
+        }
+
+        final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        buffer = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the capacity of the queue.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Adds an element to the queue if there is an empty space. This is non-blocking operation.
+     *
+     * @param element an element to add
+     * @return {@code true} if the element was added, {@code false} if the queue is full
+     * @throws NullPointerException if the element is null
+     */
+    public boolean offer(final T element) {
+        if (element == null) {
+            throw new NullPointerException("Null elements are not supported");
+        }
+
+        while (true) {
+            final long position = indices.get(PRODUCER);
+            final int cell = (int) position & mask;
+            final long difference = sequences.get(cell) - position;
+            if (difference == 0) {
+                if (indices.compareAndSet(PRODUCER, position, position + 1)) {
+                    buffer[cell] = element;
+                    sequences.set(cell, position + 1);
+                    wakeUp(waitingConsumers);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue if there is one. This is non-blocking operation.
+     *
+     * @return the first element or {@code null} if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        while (true) {
+            final long position = indices.get(CONSUMER);
+            final int cell = (int) position & mask;
+            final long difference = sequences.get(cell) - (position + 1);
+            if (difference == 0) {
+                if (indices.compareAndSet(CONSUMER, position, position + 1)) {
+                    final T element = (T) buffer[cell];
+                    buffer[cell] = null;
+                    sequences.set(cell, position + mask + 1);
+                    wakeUp(waitingProducers);
+                    return element;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException if the element is null
+     */
+    @Override
+    public void add(final T element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++) {
+            backOff(attempt, waitingProducers, () -> indices.get(PRODUCER) - indices.get(CONSUMER) < buffer.length, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * All workers share the queue.
+     */
+    @Override
+    public T poll(final int worker) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            final T element = poll();
+            if (element != null) {
+                return element;
+            }
+            backOff(attempt, waitingConsumers, () -> indices.get(PRODUCER) != indices.get(CONSUMER), Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * All workers share the queue.
+     */
+    @Override
+    public T poll(final int worker, final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; ; attempt++) {
+            final T element = poll();
+            if (element != null) {
+                return element;
+            }
+            final long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            backOff(attempt, waitingConsumers, () -> indices.get(PRODUCER) != indices.get(CONSUMER), left);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final Consumer<T> consumer) {
+        for (long position = indices.get(CONSUMER); position < indices.get(PRODUCER); position++) {
+            final int cell = (int) position & mask;
+            if (sequences.get(cell) == position + 1) {
+                consumer.accept((T) buffer[cell]);
+            }
+        }
+    }
+
+    private static void backOff(
+            final int attempt,
+            final Queue<Thread> waiting,
+            final BooleanSupplier ready,
+            final long maxParkNanos
+    ) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            // the condition is rechecked after registration, so that a wake-up between them is not lost
+            final Thread current = Thread.currentThread();
+            waiting.add(current);
+            if (!ready.getAsBoolean()) {
+                if (maxParkNanos == Long.MAX_VALUE) {
+                    LockSupport.park(waiting);
+                } else {
+                    LockSupport.parkNanos(waiting, maxParkNanos);
+                }
+            }
+            waiting.remove(current);
+        }
+    }
+
+    private static void wakeUp(final Queue<Thread> waiting) {
+        if (!waiting.isEmpty()) {
+            final Thread thread = waiting.poll();
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -2,21 +2,53 @@ package info.kgeorgiy.ja.dunaev.iterative;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
-import java.util.stream.Stream;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Class to parallelize map function on list.
  * Runs the provided function on each element in parallel, using the thread pool.
+ * By default tasks are scheduled by the {@link WorkStealingQueue}: each worker has its own deque and steals when it is empty.
+ * Runtime metrics are always collected and available by {@link #metrics()}.
+ * <p>
+ * Calls sharing the mapper may be scheduled fairly by the {@link FairTaskQueue}, see {@link #fair(int)}.
+ * <p>
+ * The pool is either fixed, or elastic, see {@link #elastic(int, int, Duration)}:
+ * it starts workers while submitted tasks outnumber idle workers and stops workers that stay idle for the keep-alive time.
  *
  * @author Dunaev Kirill
  */
 public class ParallelMapperImpl implements ParallelMapper {
-    private final List<Thread> threadPool;
-    private final ConcurrentQueue<Task<?>> taskQueue;
+    private final Set<Thread> threadPool = ConcurrentHashMap.newKeySet();
+    private final TaskQueue<Task<?>> taskQueue;
+    private final MapperMetrics metrics = new MapperMetrics();
+    private final int minThreads;
+    private final int maxThreads;
+    private final long keepAliveNanos;
+    private final String name;
+    private final ThreadGroup threadGroup;
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final AtomicInteger nextWorkerIndex = new AtomicInteger();
+    private final int maxChunkSize;
     private volatile boolean isClosed = false;
 
+    private static final int CHUNKS_PER_WORKER = 4;
+    // tasks of a fair queue are short, so a small call waits at most this number of evaluations per other call
+    private static final int FAIR_CHUNK_SIZE = 64;
+
     /**
      * Creates class with a thread pool, containing provided number of threads.
      *
@@ -24,44 +56,353 @@ public class ParallelMapperImpl implements ParallelMapper {
      * @throws IllegalStateException if the number of thread is not positive
      */
     public ParallelMapperImpl(final int threads) {
-        IterativeParallelism.assertPositive(threads);
-
-        taskQueue = new ConcurrentQueue<>();
-        final Runnable worker = () -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    taskQueue.poll().run();
-                } catch (final InterruptedException e) {
-                    Thread.currentThread().interrupt();
+        this(threads, new WorkStealingQueue<>(threads));
+    }
+
+    /**
+     * Creates class with a thread pool, containing provided number of threads, that takes tasks from the given queue.
+     * For example, {@link MpmcQueue} or {@link ConcurrentQueue} may be used instead of the default
+     * {@link WorkStealingQueue}.
+     *
+     * @param threads   numbers of thread in the thread pool
+     * @param taskQueue empty queue to schedule tasks by
+     * @throws IllegalStateException if the number of thread is not positive
+     */
+    public ParallelMapperImpl(final int threads, final TaskQueue<Task<?>> taskQueue) {
+        this(threads, threads, Duration.ZERO, taskQueue, null);
+    }
+
+    /**
+     * Creates class with a thread pool, which size changes between the given bounds.
+     * Workers are started when submitted tasks outnumber idle workers,
+     * and stopped when they stay idle for the keep-alive time while there are more than minimum workers.
+     * <p>
+     * If the name is given, workers are named {@code name-worker-N} and belong to the thread group of that name,
+     * so that they can be told apart by profilers and pinned to CPUs by external tools.
+     *
+     * @param minThreads minimum number of workers, started immediately
+     * @param maxThreads maximum number of workers
+     * @param keepAlive  time an idle worker waits for a task before stopping, ignored for fixed pools
+     * @param taskQueue  empty queue to schedule tasks by, which has at least {@code maxThreads} workers
+     * @param name       name of the pool, {@code null} for default thread names
+     * @throws IllegalStateException    if the maximum number of threads is not positive
+     * @throws IllegalArgumentException if the minimum number of threads is not in {@code [0, maxThreads]}
+     *                                  or the keep-alive time is negative
+     */
+    public ParallelMapperImpl(
+            final int minThreads,
+            final int maxThreads,
+            final Duration keepAlive,
+            final TaskQueue<Task<?>> taskQueue,
+            final String name
+    ) {
+        IterativeParallelism.assertPositive(maxThreads);
+        if (minThreads < 0 || minThreads > maxThreads) {
+            throw new IllegalArgumentException("Expected minimum threads in [0, %d], found %d".formatted(maxThreads, minThreads));
+        }
+        if (keepAlive.isNegative()) {
+            throw new IllegalArgumentException("Keep-alive time must be non-negative");
+        }
+
+        this.taskQueue = Objects.requireNonNull(taskQueue);
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.keepAliveNanos = keepAlive.toNanos();
+        this.name = name;
+        this.threadGroup = name == null ? null : new ThreadGroup(name);
+        this.maxChunkSize = taskQueue instanceof FairTaskQueue ? FAIR_CHUNK_SIZE : Integer.MAX_VALUE;
+        for (int i = 0; i < minThreads; i++) {
+            addWorker();
+        }
+    }
+
+    /**
+     * Creates class with an elastic thread pool, see {@link #ParallelMapperImpl(int, int, Duration, TaskQueue, String)}.
+     *
+     * @param minThreads minimum number of workers, started immediately
+     * @param maxThreads maximum number of workers
+     * @param keepAlive  time an idle worker waits for a task before stopping
+     * @return the mapper
+     * @throws IllegalStateException    if the maximum number of threads is not positive
+     * @throws IllegalArgumentException if the minimum number of threads is not in {@code [0, maxThreads]}
+     *                                  or the keep-alive time is negative
+     */
+    public static ParallelMapperImpl elastic(final int minThreads, final int maxThreads, final Duration keepAlive) {
+        return new ParallelMapperImpl(minThreads, maxThreads, keepAlive, new WorkStealingQueue<>(maxThreads), null);
+    }
+
+    /**
+     * Creates class with a thread pool, containing provided number of threads,
+     * that schedules concurrent calls fairly and respects their priorities, see {@link FairTaskQueue}.
+     * Arguments are split into tasks of at most {@value FAIR_CHUNK_SIZE} elements,
+     * so latency of a small call does not depend on sizes of the running calls.
+     *
+     * @param threads numbers of thread in the thread pool
+     * @return the mapper
+     * @throws IllegalStateException if the number of thread is not positive
+     * @see #map(Function, List, int)
+     */
+    public static ParallelMapperImpl fair(final int threads) {
+        return new ParallelMapperImpl(threads, new FairTaskQueue());
+    }
+
+    /**
+     * Returns the current number of workers.
+     *
+     * @return number of running worker threads
+     */
+    public int poolSize() {
+        return liveWorkers.get();
+    }
+
+    private boolean reserveWorker() {
+        int live;
+        do {
+            live = liveWorkers.get();
+            if (live >= maxThreads) {
+                return false;
+            }
+        } while (!liveWorkers.compareAndSet(live, live + 1));
+        return true;
+    }
+
+    private boolean addWorker() {
+        if (!reserveWorker()) {
+            return false;
+        }
+
+        // the pool is not changed concurrently with the close
+        synchronized (threadPool) {
+            if (isClosed) {
+                liveWorkers.decrementAndGet();
+                return false;
+            }
+            final int index = nextWorkerIndex.getAndIncrement();
+            final Thread thread = name == null
+                    ? new Thread(worker(index))
+                    : new Thread(threadGroup, worker(index), name + "-worker-" + index);
+            threadPool.add(thread);
+            thread.start();
+        }
+        return true;
+    }
+
+    private boolean retireWorker() {
+        int live;
+        do {
+            live = liveWorkers.get();
+            if (live <= minThreads) {
+                return false;
+            }
+        } while (!liveWorkers.compareAndSet(live, live - 1));
+        return true;
+    }
+
+    private void grow() {
+        for (long needed = metrics.queueDepth() - idleWorkers.get(); needed > 0 && addWorker(); needed--) {
+            // starts workers while there are tasks nobody is waiting for
+        }
+    }
+
+    private Runnable worker(final int index) {
+        return () -> {
+            final long start = System.nanoTime();
+            metrics.workerStarted(start);
+            boolean retired = false;
+            try {
+                // a task may swallow the interruption of the close, so the flag is checked as well
+                while (!isClosed && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        final Task<?> task = pollTask(index);
+                        if (task == null) {
+                            // a task submitted while this worker was counted as idle should not be left without workers
+                            if (retireWorker() && (metrics.queueDepth() == 0 || !reserveWorker())) {
+                                retired = true;
+                                break;
+                            }
+                            continue;
+                        }
+                        metrics.taskTaken();
+                        task.run();
+                        metrics.taskRun(task.waitTime(), task.runTime());
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            } finally {
+                if (!retired) {
+                    liveWorkers.decrementAndGet();
+                }
+                threadPool.remove(Thread.currentThread());
+                metrics.workerStopped(start, System.nanoTime());
+                // a worker killed by an error is replaced, so that queued tasks are not left without workers
+                if (!isClosed) {
+                    grow();
                 }
             }
         };
-        threadPool = Stream.generate(() -> worker).limit(threads).map(Thread::new).toList();
-        threadPool.forEach(Thread::start);
+    }
+
+    private Task<?> pollTask(final int index) throws InterruptedException {
+        idleWorkers.incrementAndGet();
+        try {
+            return minThreads == maxThreads
+                    ? taskQueue.poll(index)
+                    : taskQueue.poll(index, keepAliveNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            idleWorkers.decrementAndGet();
+        }
     }
 
     /**
      * {@inheritDoc}
+     * Arguments are split into at most {@value CHUNKS_PER_WORKER} ranges per worker, one task per range,
+     * so cheap functions over long lists are not dominated by the scheduling overhead.
+     * Fair mappers split arguments into shorter ranges, see {@link #fair(int)}.
      *
      * @throws IllegalStateException if the mapper has been closed
      */
     @Override
     public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args) throws InterruptedException {
+        return map(f, args, () -> false);
+    }
+
+    /**
+     * Maps function over the specified arguments, skipping not started evaluations once the call is cancelled.
+     * Results of the skipped evaluations are {@code null}, the call returns as soon as running evaluations end.
+     *
+     * @param f         function to apply
+     * @param args      arguments to map
+     * @param cancelled thread-safe condition of the cancellation, once true it should stay true
+     * @param <T>       type of the arguments
+     * @param <R>       type of the results
+     * @return list of the results
+     * @throws InterruptedException  if this thread is interrupted
+     * @throws IllegalStateException if the mapper has been closed
+     */
+    public <T, R> List<R> map(
+            final Function<? super T, ? extends R> f,
+            final List<? extends T> args,
+            final BooleanSupplier cancelled
+    ) throws InterruptedException {
+        return waitResults(this.<T, R>submit(f, args, cancelled, (value, index) -> {}, 0));
+    }
+
+    /**
+     * Maps function over the specified arguments with the given priority.
+     * Priority only matters for the queues respecting it, such as {@link FairTaskQueue}:
+     * tasks of the calls with greater priority are taken by workers first.
+     *
+     * @param f        function to apply
+     * @param args     arguments to map
+     * @param priority priority of the call, greater is more urgent, default is zero
+     * @param <T>      type of the arguments
+     * @param <R>      type of the results
+     * @return list of the results
+     * @throws InterruptedException  if this thread is interrupted
+     * @throws IllegalStateException if the mapper has been closed
+     */
+    public <T, R> List<R> map(
+            final Function<? super T, ? extends R> f,
+            final List<? extends T> args,
+            final int priority
+    ) throws InterruptedException {
+        return waitResults(this.<T, R>submit(f, args, () -> false, (value, index) -> {}, priority));
+    }
+
+    private <R> List<R> waitResults(final TasksManager<R> tasksManager) throws InterruptedException {
+        List<R> results = tasksManager.waitResults();
+        assertOpen();   // if the mapper has been closed, then the results is in undefined state
+        metrics.callCompleted(tasksManager.stragglerRatio());
+        return results;
+    }
+
+    /**
+     * Maps function over the specified arguments without waiting for the results.
+     *
+     * @param f    function to apply
+     * @param args arguments to map
+     * @param <T>  type of the arguments
+     * @param <R>  type of the results
+     * @return future of the results list, completed exceptionally if any evaluation fails or the mapper is closed
+     * @throws InterruptedException  if this thread is interrupted while the task queue is full
+     * @throws IllegalStateException if the mapper has been closed
+     * @see #mapAsync(Function, List, ObjIntConsumer)
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(
+            final Function<? super T, ? extends R> f,
+            final List<? extends T> args
+    ) throws InterruptedException {
+        return mapAsync(f, args, (value, index) -> {});
+    }
+
+    /**
+     * Maps function over the specified arguments without waiting for the results.
+     * Each result is passed to the callback as soon as it is evaluated, so results arrive in completion order.
+     * The callback is called by the worker threads, so it should be thread-safe and cheap.
+     * Exception thrown by the callback is treated as the evaluation failure.
+     *
+     * @param f        function to apply
+     * @param args     arguments to map
+     * @param onResult consumer of the results and their indices in the arguments list
+     * @param <T>      type of the arguments
+     * @param <R>      type of the results
+     * @return future of the results list, completed exceptionally if any evaluation fails or the mapper is closed
+     * @throws InterruptedException  if this thread is interrupted while the task queue is full
+     * @throws IllegalStateException if the mapper has been closed
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(
+            final Function<? super T, ? extends R> f,
+            final List<? extends T> args,
+            final ObjIntConsumer<? super R> onResult
+    ) throws InterruptedException {
+        final TasksManager<R> tasksManager = this.<T, R>submit(f, args, () -> false, onResult, 0);
+        return tasksManager.future().thenApply(results -> {
+            assertOpen();
+            metrics.callCompleted(tasksManager.stragglerRatio());
+            return results;
+        });
+    }
+
+    private <T, R> TasksManager<R> submit(
+            final Function<? super T, ? extends R> f,
+            final List<? extends T> args,
+            final BooleanSupplier cancelled,
+            final ObjIntConsumer<? super R> listener,
+            final int priority
+    ) throws InterruptedException {
         assertOpen();
 
-        final TasksManager<R> tasksManager = new TasksManager<>(args.size());
-        for (int i = 0; i < args.size(); i++) {
-            final int index = i;
+        final List<? extends T> values = args instanceof RandomAccess ? args : new ArrayList<>(args);
+        final int size = values.size();
+        final int chunks = Math.max(Math.min(size, maxThreads * CHUNKS_PER_WORKER), Math.ceilDiv(size, maxChunkSize));
+        final TasksManager<R> tasksManager = new TasksManager<>(size, chunks, cancelled, listener);
+        final IntFunction<R> function = index -> f.apply(values.get(index));
+        for (int i = 0; i < chunks; i++) {
+            metrics.taskSubmitted();
             taskQueue.add(new Task<>(
-                    tasksManager,
-                    () -> f.apply(args.get(index)),
-                    index
+                    tasksManager, function,
+                    chunkBound(size, chunks, i), chunkBound(size, chunks, i + 1),
+                    priority
             ));
         }
+        grow();
+        return tasksManager;
+    }
 
-        List<R> results = tasksManager.waitResults();
-        assertOpen();   // if the mapper has been closed, then the results is in undefined state
-        return results;
+    /**
+     * Returns runtime metrics of this mapper.
+     * Metrics are collected with a few {@link System#nanoTime()} calls and counter updates per task,
+     * so they are always on.
+     *
+     * @return live view of the metrics
+     */
+    public ParallelMapperMetrics metrics() {
+        return metrics;
+    }
+
+    private static int chunkBound(final int size, final int chunks, final int chunk) {
+        return (int) ((long) size * chunk / chunks);
     }
 
     @Override
@@ -70,14 +411,21 @@ public class ParallelMapperImpl implements ParallelMapper {
             return;
         }
 
-        isClosed = true;
-        threadPool.forEach(Thread::interrupt);
+        final List<Thread> workers;
+        synchronized (threadPool) {
+            isClosed = true;
+            workers = List.copyOf(threadPool);
+        }
+        workers.forEach(Thread::interrupt);
         try {
-            IterativeParallelism.joinThreads(threadPool);
+            IterativeParallelism.joinThreads(workers);
         } catch (final InterruptedException ignored) {
             Thread.currentThread().interrupt();
         } finally {
-            taskQueue.forEach(Task::done);
+            taskQueue.forEach(task -> {
+                metrics.taskTaken();
+                task.done();
+            });
         }
     }
 
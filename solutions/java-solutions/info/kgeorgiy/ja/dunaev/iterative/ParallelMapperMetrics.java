@@ -0,0 +1,69 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+/**
+ * Runtime metrics of the {@link ParallelMapperImpl}.
+ * All values are collected continuously and may be read at any time, reading does not stop the mapper.
+ * <p>
+ * Times are measured in nanoseconds and grouped into power-of-two buckets:
+ * bucket {@code 0} counts zero times, bucket {@code i > 0} counts times in {@code [2^(i - 1), 2^i)}.
+ *
+ * @author Dunaev Kirill
+ */
+public interface ParallelMapperMetrics {
+    /**
+     * Number of buckets in the histograms.
+     */
+    int BUCKETS = Long.SIZE;
+
+    /**
+     * Returns number of the tasks that are submitted but not taken by workers yet.
+     *
+     * @return queue depth
+     */
+    long queueDepth();
+
+    /**
+     * Returns histogram of the times tasks spent in the queue before a worker took them.
+     *
+     * @return counts of the tasks by buckets, array of {@value BUCKETS} elements
+     */
+    long[] taskWaitHistogram();
+
+    /**
+     * Returns histogram of the times workers spent running tasks.
+     *
+     * @return counts of the tasks by buckets, array of {@value BUCKETS} elements
+     */
+    long[] taskRunHistogram();
+
+    /**
+     * Returns fraction of the workers' lifetime spent running tasks.
+     *
+     * @return utilization in {@code [0, 1]}
+     */
+    double utilization();
+
+    /**
+     * Returns number of the {@code map} calls completed successfully.
+     *
+     * @return number of calls
+     */
+    long completedCalls();
+
+    /**
+     * Returns straggler ratio of the last successfully completed {@code map} call:
+     * the longest task run time divided by the mean task run time of the call.
+     * Ratio close to one means that the work is balanced, large ratio means that the call waited for a few tasks.
+     *
+     * @return straggler ratio, one if there were no calls
+     */
+    double lastStragglerRatio();
+
+    /**
+     * Returns the largest straggler ratio among the successfully completed {@code map} calls.
+     *
+     * @return straggler ratio, one if there were no calls
+     * @see #lastStragglerRatio()
+     */
+    double maxStragglerRatio();
+}
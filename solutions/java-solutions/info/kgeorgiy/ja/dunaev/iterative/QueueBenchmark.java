@@ -0,0 +1,128 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Contention benchmark of the {@link TaskQueue} implementations.
+ * Producers and consumers pass a fixed number of elements through the queue, throughput is reported.
+ *
+ * @author Dunaev Kirill
+ */
+public class QueueBenchmark {
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int DEFAULT_ELEMENTS = 1 << 22;
+    private static final int MPMC_CAPACITY = 1 << 16;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURE_RUNS = 5;
+    private static final Object ELEMENT = new Object();
+    private static final Object STOP = new Object();
+
+    private QueueBenchmark() {
+    }
+
+    /**
+     * Passes elements through the queue.
+     *
+     * @param queue     empty queue to benchmark
+     * @param producers number of producer threads
+     * @param consumers number of consumer threads
+     * @param elements  number of elements to pass
+     * @return elapsed time in nanoseconds
+     * @throws InterruptedException if this thread is interrupted
+     */
+    public static long run(
+            final TaskQueue<Object> queue,
+            final int producers,
+            final int consumers,
+            final int elements
+    ) throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < consumers; i++) {
+            final int worker = i;
+            threads.add(new Thread(() -> {
+                try {
+                    Object element;
+                    do {
+                        element = queue.poll(worker);
+                    } while (element != STOP);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        final List<Thread> producerThreads = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            final int count = elements / producers + (i < elements % producers ? 1 : 0);
+            producerThreads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < count; j++) {
+                        queue.add(ELEMENT);
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        final long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        producerThreads.forEach(Thread::start);
+        IterativeParallelism.joinThreads(producerThreads);
+        for (int i = 0; i < consumers; i++) {
+            queue.add(STOP);
+        }
+        IterativeParallelism.joinThreads(threads);
+        return System.nanoTime() - start;
+    }
+
+    private static void measure(
+            final String name,
+            final IntFunction<TaskQueue<Object>> factory,
+            final int producers,
+            final int consumers,
+            final int elements
+    ) throws InterruptedException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run(factory.apply(consumers), producers, consumers, elements);
+        }
+        long total = 0;
+        for (int i = 0; i < MEASURE_RUNS; i++) {
+            total += run(factory.apply(consumers), producers, consumers, elements);
+        }
+        System.out.printf("%-18s %12.1f ops/ms%n", name, (double) elements * MEASURE_RUNS / (total / 1e6));
+    }
+
+    /**
+     * Runs the benchmark for all queues and prints results.
+     * Usage: <pre>{@code QueueBenchmark [producers [consumers [elements]]]}</pre>
+     * Default values are the number of available processors for threads and {@value DEFAULT_ELEMENTS} elements.
+     *
+     * @param args command line arguments
+     */
+    public static void main(final String[] args) {
+        Objects.requireNonNull(args);
+        Arrays.stream(args).forEach(Objects::requireNonNull);
+
+        try {
+            final int producers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+            final int consumers = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THREADS;
+            final int elements = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ELEMENTS;
+            IterativeParallelism.assertPositive(producers);
+            IterativeParallelism.assertPositive(consumers);
+
+            System.out.printf("Producers: %d, consumers: %d, elements: %d%n", producers, consumers, elements);
+            measure("ConcurrentQueue", workers -> new ConcurrentQueue<>(), producers, consumers, elements);
+            measure("MpmcQueue", workers -> new MpmcQueue<>(MPMC_CAPACITY), producers, consumers, elements);
+            measure("WorkStealingQueue", WorkStealingQueue::new, producers, consumers, elements);
+        } catch (final IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Bad benchmark arguments: " + e.getMessage());
+            System.err.println("Usage: QueueBenchmark [producers [consumers [elements]]]");
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,45 +1,124 @@
 package info.kgeorgiy.ja.dunaev.iterative;
 
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
 /**
- * Manages one task: evaluates the result, transfers all information (result/exception) to the {@link TasksManager}.
+ * Manages one task: evaluates the results for a range of indices,
+ * transfers all information (results/exception/run time) to the {@link TasksManager}.
+ * The task remembers its creation time, so that the time spent in a queue can be measured.
  *
  * @param <R> result type
  * @author Dunaev Kirill
  */
 public class Task<R> {
     private final TasksManager<R> manager;
-    private final Supplier<R> resultSupplier;
-    private final int resultIndex;
+    private final IntFunction<? extends R> function;
+    private final int from;
+    private final int to;
+    private final int priority;
+    private final long created = System.nanoTime();
+    private long started;
+    private long finished;
 
     /**
-     * Creates task.
+     * Creates task evaluating one result.
      *
      * @param manager        manager to process results and exceptions
      * @param resultSupplier supplier to evaluate
      * @param resultIndex    index of the result in the manager
      */
     public Task(TasksManager<R> manager, Supplier<R> resultSupplier, int resultIndex) {
-        this.resultSupplier = resultSupplier;
+        this(manager, index -> resultSupplier.get(), resultIndex, resultIndex + 1);
+    }
+
+    /**
+     * Creates task evaluating results for the range of indices.
+     *
+     * @param manager  manager to process results and exceptions
+     * @param function function to evaluate the result by its index
+     * @param from     the first index, inclusive
+     * @param to       the last index, exclusive
+     */
+    public Task(TasksManager<R> manager, IntFunction<? extends R> function, int from, int to) {
+        this(manager, function, from, to, 0);
+    }
+
+    /**
+     * Creates task evaluating results for the range of indices with the given priority.
+     *
+     * @param manager  manager to process results and exceptions
+     * @param function function to evaluate the result by its index
+     * @param from     the first index, inclusive
+     * @param to       the last index, exclusive
+     * @param priority priority of the task, greater is more urgent
+     */
+    public Task(TasksManager<R> manager, IntFunction<? extends R> function, int from, int to, int priority) {
         this.manager = manager;
-        this.resultIndex = resultIndex;
+        this.function = function;
+        this.from = from;
+        this.to = to;
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the manager of the task. Tasks of the same {@code map} call share the manager.
+     *
+     * @return the manager
+     */
+    public TasksManager<R> manager() {
+        return manager;
     }
 
     /**
-     * Evaluates the result using supplier. Sets a result or an exception to the {@link #manager}.
+     * Returns priority of the task.
+     *
+     * @return priority, greater is more urgent
+     */
+    public int priority() {
+        return priority;
+    }
+
+    /**
+     * Evaluates the results using function. Sets the results or an exception to the {@link #manager}.
+     * The rest of the range is not evaluated after an exception or if the manager is cancelled.
      * Also calls {@link #done()}.
      */
     public void run() {
+        started = System.nanoTime();
         try {
-            manager.result(resultIndex, resultSupplier.get());
+            for (int index = from; index < to && !manager.isCancelled(); index++) {
+                manager.result(index, function.apply(index));
+            }
         } catch (final RuntimeException e) {
             manager.exception(e);
         } finally {
+            finished = System.nanoTime();
+            manager.taskTime(finished - started);
             done();
         }
     }
 
+    /**
+     * Returns time the task waited in the queue, from its creation to the start of {@link #run()}.
+     * Should be called by the thread which has run the task.
+     *
+     * @return wait time in nanoseconds
+     */
+    public long waitTime() {
+        return started - created;
+    }
+
+    /**
+     * Returns time the task was running.
+     * Should be called by the thread which has run the task.
+     *
+     * @return run time in nanoseconds
+     */
+    public long runTime() {
+        return finished - started;
+    }
+
     /**
      * Informs the manager that the task is done by calling {@link TasksManager#done()}.
      */
@@ -0,0 +1,51 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Blocking queue of the tasks for a pool of workers.
+ *
+ * @param <T> type of the stored elements
+ * @author Dunaev Kirill
+ */
+public interface TaskQueue<T> {
+    /**
+     * Adds an element to the queue.
+     * This is blocking operation if the queue is bounded: the method waits until there is an empty space in the queue.
+     *
+     * @param element an element to add
+     * @throws InterruptedException if this thread is interrupted
+     */
+    void add(T element) throws InterruptedException;
+
+    /**
+     * Retrieves and removes an element of the queue for the given worker.
+     * This is blocking operation: the method waits until the queue is not empty.
+     *
+     * @param worker index of the worker
+     * @return retrieved element
+     * @throws InterruptedException if this thread is interrupted
+     */
+    T poll(int worker) throws InterruptedException;
+
+    /**
+     * Retrieves and removes an element of the queue for the given worker,
+     * waiting at most the given time until the queue is not empty.
+     *
+     * @param worker  index of the worker
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return retrieved element or {@code null} if the time elapsed
+     * @throws InterruptedException if this thread is interrupted
+     */
+    T poll(int worker, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Applies the given consumer to all elements in the queue.
+     * Should not be called concurrently with polling.
+     *
+     * @param consumer the consumer to apply
+     */
+    void forEach(Consumer<T> consumer);
+}
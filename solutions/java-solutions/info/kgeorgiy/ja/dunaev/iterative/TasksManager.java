@@ -1,44 +1,143 @@
 package info.kgeorgiy.ja.dunaev.iterative;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Manages the {@link Task} and their results.
- * Stores tasks' results, occurred exceptions and the tasks counter, which indicates how many tasks are not done yet.
+ * Stores tasks' results in a preallocated array, occurred exceptions and the tasks counter,
+ * which indicates how many tasks are not done yet.
+ * Tasks may be cancelled cooperatively: they check {@link #isCancelled()} and skip the rest of their work.
+ * The results may be waited for by {@link #waitResults()} or obtained asynchronously by {@link #future()}.
+ * <p>
+ * Completion takes no locks: results are written to the array by index, the counter is atomic
+ * and only the last done task wakes the waiters.
  *
  * @param <R> result type
  * @author Dunaev Kirill
  */
 public class TasksManager<R> {
-    private final List<R> results;
-    private int counter;
-    private RuntimeException ex;
+    private final R[] results;
+    private final BooleanSupplier cancelled;
+    private final ObjIntConsumer<? super R> listener;
+    private final CompletableFuture<List<R>> future = new CompletableFuture<>();
+    private final LongAdder runTime = new LongAdder();
+    private final LongAdder timedTasks = new LongAdder();
+    private final LongAccumulator maxRunTime = new LongAccumulator(Math::max, 0);
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final AtomicInteger counter;
+    private final AtomicReference<RuntimeException> ex = new AtomicReference<>();
 
     /**
-     * Creates manager with the given number of tasks to manage.
+     * Creates manager with the given number of tasks to manage, each task evaluates one result.
      *
      * @param size number of tasks
      * @throws IllegalArgumentException if the provided size is negative
      */
     public TasksManager(int size) {
-        if (size < 0) {
+        this(size, size);
+    }
+
+    /**
+     * Creates manager with the given number of results and tasks evaluating them.
+     *
+     * @param size  number of results
+     * @param tasks number of tasks
+     * @throws IllegalArgumentException if the provided size or number of tasks is negative
+     */
+    public TasksManager(int size, int tasks) {
+        this(size, tasks, () -> false);
+    }
+
+    /**
+     * Creates manager with the given number of results and tasks evaluating them, which may be cancelled.
+     * Results, that are not evaluated because of the cancellation, are {@code null}.
+     *
+     * @param size      number of results
+     * @param tasks     number of tasks
+     * @param cancelled thread-safe condition of the cancellation, once true it should stay true
+     * @throws IllegalArgumentException if the provided size or number of tasks is negative
+     */
+    public TasksManager(int size, int tasks, BooleanSupplier cancelled) {
+        this(size, tasks, cancelled, (value, index) -> {});
+    }
+
+    /**
+     * Creates manager with the given number of results and tasks evaluating them, which may be cancelled,
+     * that passes each result to the listener as soon as it is evaluated.
+     *
+     * @param size      number of results
+     * @param tasks     number of tasks
+     * @param cancelled thread-safe condition of the cancellation, once true it should stay true
+     * @param listener  thread-safe consumer of the results and their indices, called by the tasks in completion order
+     * @throws IllegalArgumentException if the provided size or number of tasks is negative
+     */
+    @SuppressWarnings("unchecked")
+    public TasksManager(int size, int tasks, BooleanSupplier cancelled, ObjIntConsumer<? super R> listener) {
+        if (size < 0 || tasks < 0) {
             throw new IllegalArgumentException("Task size must be non-negative");
         }
 
-        results = new ArrayList<>(Collections.nCopies(size, null));
-        counter = size;
+        results = (R[]) new Object[size];
+        counter = new AtomicInteger(tasks);
+        this.cancelled = cancelled;
+        this.listener = listener;
+        if (tasks == 0) {
+            complete();
+        }
+    }
+
+    /**
+     * Checks whether the tasks are cancelled.
+     *
+     * @return {@code true} if the remaining results should not be evaluated
+     */
+    public boolean isCancelled() {
+        return cancelled.getAsBoolean();
     }
 
     /**
-     * Saves the result of the task with the given index.
+     * Saves the result with the given index and passes it to the listener. Each index should be set by one task,
+     * the results are published to the waiter by {@link #done()}.
      *
-     * @param index index of the task
+     * @param index index of the result
      * @param value result
      */
-    public synchronized void result(int index, R value) {
-        results.set(index, value);
+    public void result(int index, R value) {
+        results[index] = value;
+        listener.accept(value, index);
+    }
+
+    /**
+     * Records run time of a task. Called by the task before {@link #done()}.
+     *
+     * @param nanos run time in nanoseconds
+     */
+    public void taskTime(long nanos) {
+        runTime.add(nanos);
+        timedTasks.increment();
+        maxRunTime.accumulate(nanos);
+    }
+
+    /**
+     * Returns the longest task run time divided by the mean task run time.
+     * Should be called after the tasks are done.
+     *
+     * @return straggler ratio, one if no tasks have been run
+     */
+    public double stragglerRatio() {
+        final long total = runTime.sum();
+        return total == 0 ? 1 : (double) maxRunTime.get() * timedTasks.sum() / total;
     }
 
     /**
@@ -47,28 +146,49 @@ public class TasksManager<R> {
      *
      * @param e an exception to add
      */
-    public synchronized void exception(RuntimeException e) {
-        if (ex == null) {
-            ex = e;
-        } else {
-            ex.addSuppressed(e);
+    public void exception(RuntimeException e) {
+        if (!ex.compareAndSet(null, e)) {
+            ex.get().addSuppressed(e);
         }
     }
 
     /**
-     * Decrements the task counter. If it reaches zero, calls notify.
+     * Decrements the task counter. If it reaches zero, completes the {@link #future()} and wakes the waiters.
+     * The results and exceptions of the task are published by the counter update.
      *
      * @throws IllegalStateException if the counter has already reached zero
      */
-    public synchronized void done() {
-        if (counter <= 0) {
-            throw new IllegalStateException("Done with non-positive counter");
+    public void done() {
+        int left;
+        do {
+            left = counter.get();
+            if (left <= 0) {
+                throw new IllegalStateException("Done with non-positive counter");
+            }
+        } while (!counter.compareAndSet(left, left - 1));
+
+        if (left == 1) {
+            complete();
         }
+    }
 
-        --counter;
-        if (counter == 0) {
-            notify();
+    private void complete() {
+        if (ex.get() != null) {
+            future.completeExceptionally(ex.get());
+        } else {
+            future.complete(Arrays.asList(results));
         }
+        completed.countDown();
+    }
+
+    /**
+     * Returns future of the results, completed when the tasks counter reaches zero.
+     * The future is completed exceptionally with the stored exception, if there is one.
+     *
+     * @return future of the tasks' results
+     */
+    public CompletableFuture<List<R>> future() {
+        return future;
     }
 
     /**
@@ -78,13 +198,33 @@ public class TasksManager<R> {
      * @throws InterruptedException if this thread is interrupted
      * @throws RuntimeException     if there is an exception stored
      */
-    public synchronized List<R> waitResults() throws InterruptedException {
-        while (counter > 0) {
-            wait();
+    public List<R> waitResults() throws InterruptedException {
+        completed.await();
+        return results();
+    }
+
+    /**
+     * Waits at most the given time until tasks counter reaches zero
+     * and returns the results or throws the stored exception.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return tasks' results
+     * @throws InterruptedException if this thread is interrupted
+     * @throws TimeoutException     if the time elapsed before the tasks are done
+     * @throws RuntimeException     if there is an exception stored
+     */
+    public List<R> waitResults(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        if (!completed.await(timeout, unit)) {
+            throw new TimeoutException("Tasks are not done in %d %s".formatted(timeout, unit));
         }
-        if (ex != null) {
-            throw ex;
+        return results();
+    }
+
+    private List<R> results() {
+        if (ex.get() != null) {
+            throw ex.get();
         }
-        return results;
+        return Arrays.asList(results);
     }
 }
@@ -0,0 +1,105 @@
+package info.kgeorgiy.ja.dunaev.iterative;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safety unbounded queue with a lock-free deque per worker.
+ * Added elements are spread across the deques in round-robin. Each worker polls its own deque first
+ * and steals from the tails of the other deques when its own one is empty.
+ * <p>
+ * Blocking is done with a semaphore counting the stored elements,
+ * so each added element wakes at most one waiting worker.
+ *
+ * @param <T> type of the stored elements
+ * @author Dunaev Kirill
+ */
+public class WorkStealingQueue<T> implements TaskQueue<T> {
+    private final List<Deque<T>> deques;
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicInteger nextDeque = new AtomicInteger();
+
+    /**
+     * Creates empty queue.
+     *
+     * @param workers number of workers, which is the number of deques
+     * @throws IllegalStateException if the number of workers is not positive
+     */
+    public WorkStealingQueue(final int workers) {
+        IterativeParallelism.assertPositive(workers);
+
+        deques = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            deques.add(new ConcurrentLinkedDeque<>());
+        }
+    }
+
+    /**
+     * Adds an element to the next deque in round-robin order.
+     *
+     * @param element an element to add
+     */
+    @Override
+    public void add(final T element) {
+        deques.get(Math.floorMod(nextDeque.getAndIncrement(), deques.size())).addLast(element);
+        available.release();
+    }
+
+    /**
+     * Retrieves and removes an element for the given worker: the first element of its deque if any,
+     * otherwise the last element of another deque.
+     * This is blocking operation: the method waits until the queue is not empty.
+     *
+     * @param worker index of the worker
+     * @return retrieved element
+     * @throws InterruptedException if this thread is interrupted
+     */
+    @Override
+    public T poll(final int worker) throws InterruptedException {
+        available.acquire();
+        return take(worker);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The element is chosen as in {@link #poll(int)}.
+     */
+    @Override
+    public T poll(final int worker, final long timeout, final TimeUnit unit) throws InterruptedException {
+        return available.tryAcquire(timeout, unit) ? take(worker) : null;
+    }
+
+    private T take(final int worker) {
+        // the acquired permit guarantees that there is an element left for this worker
+        final int own = Math.floorMod(worker, deques.size());
+        while (true) {
+            final T elem = deques.get(own).pollFirst();
+            if (elem != null) {
+                return elem;
+            }
+            for (int i = 1; i < deques.size(); i++) {
+                final T stolen = deques.get((own + i) % deques.size()).pollLast();
+                if (stolen != null) {
+                    return stolen;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Applies the given consumer to all elements in the queue.
+     *
+     * @param consumer the consumer to apply
+     */
+    @Override
+    public void forEach(final Consumer<T> consumer) {
+        deques.forEach(deque -> deque.forEach(consumer));
+    }
+}
@@ -0,0 +1,111 @@
+package info.kgeorgiy.ja.dunaev.iterative.test;
+
+import info.kgeorgiy.ja.dunaev.iterative.IterativeParallelism;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for {@link IterativeParallelism}.
+ *
+ * @author Dunaev Kirill
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class IterativeParallelismTests {
+    private static final int THREADS = 3;
+    private static final int SIZE = 1_000;
+
+    // list without random access, that counts indexed accesses, but not iterations
+    private static class CountingList extends AbstractList<Integer> {
+        private final List<Integer> values;
+        private int indexed;
+
+        private CountingList(final List<Integer> values) {
+            this.values = values;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            ++indexed;
+            return values.get(index);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return values.iterator();
+        }
+
+        @Override
+        public ListIterator<Integer> listIterator(final int index) {
+            return values.listIterator(index);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+
+    private static List<Integer> expected(
+            final List<Integer> values,
+            final Function<Integer, Integer> f,
+            final int step
+    ) {
+        return IntStream.iterate(0, i -> i < values.size(), i -> i + step)
+                .mapToObj(values::get)
+                .map(f)
+                .toList();
+    }
+
+    @Test
+    public void test01_sequentialAccessLists() throws InterruptedException {
+        final IterativeParallelism parallelism = new IterativeParallelism();
+        final List<Integer> values = IntStream.range(0, SIZE).boxed().toList();
+        final Function<Integer, Integer> f = v -> v * 3;
+        for (final int step : new int[]{1, 2, 7, SIZE, SIZE + 1}) {
+            final List<Integer> expected = expected(values, f, step);
+            Assertions.assertEquals(expected, parallelism.map(THREADS, new LinkedList<>(values), f, step));
+
+            // neither random access, nor abstract list, so the access cost is unknown
+            final CountingList list = new CountingList(values);
+            Assertions.assertEquals(expected, parallelism.map(THREADS, Collections.unmodifiableList(list), f, step));
+            Assertions.assertEquals(0, list.indexed, "Indexed access to sequential list, step = " + step);
+        }
+    }
+
+    @Test
+    public void test02_indexedAccessLists() throws InterruptedException {
+        final IterativeParallelism parallelism = new IterativeParallelism();
+        final int step = 1 << 20;
+        final AtomicInteger indexed = new AtomicInteger();
+        // abstract list without random access, that is too large to iterate over
+        final List<Integer> sparse = new AbstractList<>() {
+            @Override
+            public Integer get(final int index) {
+                indexed.incrementAndGet();
+                return Objects.checkIndex(index, size()) / step;
+            }
+
+            @Override
+            public int size() {
+                return SIZE * step;
+            }
+        };
+
+        final List<Integer> expected = IntStream.range(0, SIZE).boxed().toList();
+        Assertions.assertEquals(expected, parallelism.map(THREADS, sparse, Function.identity(), step));
+        Assertions.assertEquals(SIZE, indexed.get());
+    }
+}
@@ -0,0 +1,136 @@
+package info.kgeorgiy.ja.dunaev.iterative.test;
+
+import info.kgeorgiy.ja.dunaev.iterative.MpmcQueue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link MpmcQueue}.
+ *
+ * @author Dunaev Kirill
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class MpmcQueueTests {
+    private static final int PRODUCERS = 3;
+    private static final int CONSUMERS = 3;
+    private static final int ELEMENTS = 20_000;
+
+    @Test
+    public void test01_capacity() {
+        Assertions.assertEquals(2, new MpmcQueue<Integer>(1).capacity());
+        Assertions.assertEquals(2, new MpmcQueue<Integer>(2).capacity());
+        Assertions.assertEquals(4, new MpmcQueue<Integer>(3).capacity());
+        Assertions.assertEquals(4, new MpmcQueue<Integer>(4).capacity());
+        Assertions.assertEquals(2048, new MpmcQueue<Integer>(1025).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MpmcQueue<Integer>(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MpmcQueue<Integer>((1 << 30) + 1));
+    }
+
+    @Test
+    public void test02_wrapAround() {
+        final MpmcQueue<Integer> queue = new MpmcQueue<>(4);
+        int added = 0;
+        int polled = 0;
+        for (int lap = 0; lap < 10; lap++) {
+            while (queue.offer(added)) {
+                ++added;
+            }
+            Assertions.assertEquals(polled + queue.capacity(), added, "lap " + lap);
+            // free a part of the ring, so that the next lap starts in the middle of it
+            for (int i = 0; i <= lap % queue.capacity(); i++) {
+                Assertions.assertEquals(polled++, queue.poll());
+            }
+        }
+        for (Integer element; (element = queue.poll()) != null; ) {
+            Assertions.assertEquals(polled++, element);
+        }
+        Assertions.assertEquals(added, polled);
+    }
+
+    @Test
+    public void test03_producersAndConsumers() throws InterruptedException {
+        for (final int capacity : new int[]{1, 2, 16, 1024}) {
+            checkProducersAndConsumers(capacity);
+        }
+    }
+
+    private static void checkProducersAndConsumers(final int capacity) throws InterruptedException {
+        final MpmcQueue<Integer> queue = new MpmcQueue<>(capacity);
+        final int total = PRODUCERS * ELEMENTS;
+        final AtomicInteger received = new AtomicInteger();
+        final List<List<Integer>> consumed = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < ELEMENTS; i++) {
+                        queue.add(producer * ELEMENTS + i);
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (int c = 0; c < CONSUMERS; c++) {
+            final int worker = c;
+            final List<Integer> elements = new ArrayList<>();
+            consumed.add(elements);
+            threads.add(new Thread(() -> {
+                try {
+                    while (received.get() < total) {
+                        final Integer element = queue.poll(worker, 10, TimeUnit.MILLISECONDS);
+                        if (element != null) {
+                            elements.add(element);
+                            received.incrementAndGet();
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.setUncaughtExceptionHandler((t, e) -> {
+                synchronized (errors) {
+                    errors.add(e);
+                }
+            });
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(List.of(), errors);
+        Assertions.assertNull(queue.poll(), "Extra element, capacity " + capacity);
+        final int[] counts = new int[total];
+        for (final List<Integer> elements : consumed) {
+            final int[] last = new int[PRODUCERS];
+            Arrays.fill(last, -1);
+            for (final int element : elements) {
+                ++counts[element];
+                // a consumer sees elements of each producer in the order they were added
+                final int producer = element / ELEMENTS;
+                Assertions.assertTrue(
+                        last[producer] < element,
+                        "Reordered element %d, capacity %d".formatted(element, capacity)
+                );
+                last[producer] = element;
+            }
+        }
+        for (int element = 0; element < total; element++) {
+            Assertions.assertEquals(1, counts[element], "Element %d, capacity %d".formatted(element, capacity));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package info.kgeorgiy.ja.dunaev.iterative.test;
+
+import info.kgeorgiy.ja.dunaev.iterative.ParallelMapperImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for {@link ParallelMapperImpl}.
+ *
+ * @author Dunaev Kirill
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class ParallelMapperTests {
+    private static final int THREADS = 2;
+    private static final int LARGE_SIZE = 10_000;
+
+    private static List<Integer> range(final int size) {
+        return IntStream.range(0, size).boxed().toList();
+    }
+
+    @Test
+    public void test01_fairResults() throws InterruptedException {
+        try (final ParallelMapperImpl mapper = ParallelMapperImpl.fair(THREADS)) {
+            for (final int size : new int[]{0, 1, 63, 64, 65, 1_000, 100_000}) {
+                final List<Integer> values = range(size);
+                final Function<Integer, Integer> f = v -> v * 2 + 1;
+                Assertions.assertEquals(values.stream().map(f).toList(), mapper.map(f, values), "size = " + size);
+            }
+        }
+    }
+
+    @Test
+    public void test02_smallCallLatency() throws Exception {
+        try (final ParallelMapperImpl mapper = ParallelMapperImpl.fair(1)) {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger largeEvaluated = new AtomicInteger();
+            // the only worker is held by the first task of the large call until the small call is submitted
+            final CompletableFuture<List<Integer>> large = mapper.mapAsync(v -> {
+                if (v == 0) {
+                    started.countDown();
+                    await(release);
+                }
+                largeEvaluated.incrementAndGet();
+                return v;
+            }, range(LARGE_SIZE));
+            started.await();
+
+            final AtomicInteger evaluatedBeforeSmall = new AtomicInteger(-1);
+            final CompletableFuture<List<Integer>> small = mapper.mapAsync(v -> {
+                evaluatedBeforeSmall.compareAndSet(-1, largeEvaluated.get());
+                return v + 1;
+            }, List.of(0, 1, 2));
+            release.countDown();
+
+            Assertions.assertEquals(List.of(1, 2, 3), small.get());
+            Assertions.assertTrue(
+                    evaluatedBeforeSmall.get() < LARGE_SIZE / 10,
+                    "Small call waited for %d of %d evaluations of the large call".formatted(evaluatedBeforeSmall.get(), LARGE_SIZE)
+            );
+            Assertions.assertEquals(range(LARGE_SIZE), large.get());
+        }
+    }
+
+    @Test
+    public void test03_asyncDeliversEachIndexOnce() throws Exception {
+        try (final ParallelMapperImpl mapper = new ParallelMapperImpl(THREADS)) {
+            for (final int size : new int[]{0, 1, 7, LARGE_SIZE}) {
+                final AtomicIntegerArray delivered = new AtomicIntegerArray(size);
+                final ObjIntConsumer<Integer> onResult = (value, index) -> {
+                    Assertions.assertEquals(index * 2, value);
+                    delivered.incrementAndGet(index);
+                };
+                final List<Integer> results = mapper.mapAsync(v -> v * 2, range(size), onResult).get();
+
+                Assertions.assertEquals(range(size).stream().map(v -> v * 2).toList(), results);
+                for (int i = 0; i < size; i++) {
+                    Assertions.assertEquals(1, delivered.get(i), "Deliveries of index %d of %d".formatted(i, size));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test04_asyncFailures() throws InterruptedException {
+        try (final ParallelMapperImpl mapper = new ParallelMapperImpl(THREADS)) {
+            final IllegalStateException failure = new IllegalStateException("evaluation");
+            final CompletableFuture<List<Integer>> failed = mapper.mapAsync(v -> {
+                if (v == LARGE_SIZE / 2) {
+                    throw failure;
+                }
+                return v;
+            }, range(LARGE_SIZE));
+            Assertions.assertSame(failure, assertFailed(failed));
+
+            final IllegalArgumentException callbackFailure = new IllegalArgumentException("callback");
+            final CompletableFuture<List<Integer>> callbackFailed = mapper.<Integer, Integer>mapAsync(
+                    Function.identity(),
+                    range(LARGE_SIZE),
+                    (value, index) -> {
+                        if (index == 0) {
+                            throw callbackFailure;
+                        }
+                    }
+            );
+            Assertions.assertSame(callbackFailure, assertFailed(callbackFailed));
+
+            // the mapper still works after failed calls
+            Assertions.assertEquals(range(LARGE_SIZE), mapper.map(Function.identity(), range(LARGE_SIZE)));
+        }
+    }
+
+    @Test
+    public void test05_elasticPool() throws Exception {
+        final int minThreads = 1;
+        final int maxThreads = 4;
+        final Duration keepAlive = Duration.ofMillis(100);
+        try (final ParallelMapperImpl mapper = ParallelMapperImpl.elastic(minThreads, maxThreads, keepAlive)) {
+            Assertions.assertEquals(minThreads, mapper.poolSize());
+
+            // every evaluation holds its worker, so the pool grows until all workers are busy
+            final CountDownLatch release = new CountDownLatch(1);
+            final CompletableFuture<List<Integer>> blocked = mapper.mapAsync(v -> {
+                await(release);
+                return v;
+            }, range(maxThreads * 4));
+            awaitPoolSize(mapper, maxThreads, "grow");
+            release.countDown();
+            Assertions.assertEquals(range(maxThreads * 4), blocked.get());
+            Assertions.assertTrue(mapper.poolSize() <= maxThreads, "Pool exceeded maximum size");
+
+            awaitPoolSize(mapper, minThreads, "shrink");
+            Thread.sleep(keepAlive.multipliedBy(3).toMillis());
+            Assertions.assertEquals(minThreads, mapper.poolSize(), "Pool shrank below minimum size");
+
+            // the shrunk pool still serves calls
+            Assertions.assertEquals(range(LARGE_SIZE), mapper.map(Function.identity(), range(LARGE_SIZE)));
+        }
+    }
+
+    private static void awaitPoolSize(
+            final ParallelMapperImpl mapper,
+            final int expected,
+            final String action
+    ) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (mapper.poolSize() != expected) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(
+                        "Pool did not %s to %d workers, has %d".formatted(action, expected, mapper.poolSize())
+                );
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static Throwable assertFailed(final CompletableFuture<?> future) throws InterruptedException {
+        try {
+            future.get();
+            throw new AssertionError("Expected failed future");
+        } catch (final ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.AdvancedQuery;
+import info.kgeorgiy.java.advanced.student.Group;
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caching layer in front of the {@link AdvancedQuery}. Results are cached by the query, the roster and the arguments.
+ * Rosters are compared by identity, so a roster must not be modified while it is queried through the cache:
+ * modifications must be followed by {@link #setRosterVersion(long)} or {@link #invalidate()}.
+ * <p>
+ * The cache is bounded by size with the least recently used eviction and by entries time to live.
+ * Rosters are referenced weakly, and expired entries are dropped by later insertions,
+ * so the cache does not keep rosters nobody queries anymore.
+ * Cached collections are unmodifiable. The class is thread-safe if the underlying queries are.
+ *
+ * @author Dunaev Kirill
+ */
+public class CachingStudentDB implements AdvancedQuery {
+    private final AdvancedQuery delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> cache;
+    private long version;
+    private long nextPurge;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // the roster is held weakly, so cached keys do not keep dropped rosters alive; cleared keys are equal to nothing
+    private record Key(String query, Reference<Object> roster, int rosterHash, List<Object> args) {
+        private Key(final String query, final Object roster, final List<Object> args) {
+            this(query, new WeakReference<>(roster), System.identityHashCode(roster), args);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key that) || rosterHash != that.rosterHash || !query.equals(that.query)) {
+                return false;
+            }
+            final Object current = roster.get();
+            return current != null && that.roster.refersTo(current) && args.equals(that.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, rosterHash, args);
+        }
+    }
+
+    private record Entry(Object value, long version, long created) {
+    }
+
+    /**
+     * Creates cache in front of the given queries.
+     *
+     * @param delegate queries to cache
+     * @param maxSize  maximum number of cached results
+     * @param ttl      time to live of the cached results
+     * @throws IllegalArgumentException if the size or the time to live is not positive
+     */
+    public CachingStudentDB(final AdvancedQuery delegate, final int maxSize, final Duration ttl) {
+        this.delegate = Objects.requireNonNull(delegate);
+        if (maxSize <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Expected positive cache size and time to live");
+        }
+
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nextPurge = System.nanoTime() + ttlNanos;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                if (size() > CachingStudentDB.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Sets the current roster version. If it differs from the previous one, all cached results are dropped.
+     * For example, {@link StudentStore#getVersion()} may be used.
+     *
+     * @param version new roster version
+     */
+    public synchronized void setRosterVersion(final long version) {
+        if (this.version != version) {
+            this.version = version;
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the current roster version.
+     *
+     * @return the roster version
+     */
+    public synchronized long getRosterVersion() {
+        return version;
+    }
+
+    /**
+     * Drops all cached results.
+     */
+    public synchronized void invalidate() {
+        cache.clear();
+    }
+
+    /**
+     * Returns the number of queries answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries passed to the underlying queries.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results evicted due to the size bound.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of currently cached results, including expired ones.
+     *
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R cached(final String query, final Object roster, final Supplier<R> supplier, final Object... args) {
+        final Key key = new Key(query, roster, Arrays.asList(args));
+        final long requestVersion;
+        synchronized (this) {
+            final Entry entry = cache.get(key);
+            if (entry != null && entry.version == version && System.nanoTime() - entry.created < ttlNanos) {
+                hits.increment();
+                return (R) entry.value;
+            }
+            if (entry != null) {
+                cache.remove(key);
+            }
+            requestVersion = version;
+        }
+
+        misses.increment();
+        final R value = supplier.get();
+        synchronized (this) {
+            if (requestVersion == version) {
+                final long now = System.nanoTime();
+                purge(now);
+                cache.put(key, new Entry(value, requestVersion, now));
+            }
+        }
+        return value;
+    }
+
+    private <T> List<T> cachedList(
+            final String query,
+            final Object roster,
+            final Supplier<List<T>> supplier,
+            final Object... args
+    ) {
+        return cached(query, roster, () -> Collections.unmodifiableList(supplier.get()), args);
+    }
+
+    // drops expired entries and entries of collected rosters at most once per time to live,
+    // so they are kept at most twice the time to live even if their keys are never queried again
+    private void purge(final long now) {
+        if (now - nextPurge >= 0) {
+            nextPurge = now + ttlNanos;
+            cache.entrySet().removeIf(e -> now - e.getValue().created >= ttlNanos || e.getKey().roster.refersTo(null));
+        }
+    }
+
+    private static List<Integer> indicesKey(final int[] indices) {
+        return Arrays.stream(indices).boxed().toList();
+    }
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        return cachedList("getFirstNames", students, () -> delegate.getFirstNames(students));
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        return cachedList("getLastNames", students, () -> delegate.getLastNames(students));
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        return cachedList("getGroups", students, () -> delegate.getGroups(students));
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        return cachedList("getFullNames", students, () -> delegate.getFullNames(students));
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        return cached("getDistinctFirstNames", students,
+                () -> Collections.unmodifiableSet(delegate.getDistinctFirstNames(students)));
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        return cached("getMaxStudentFirstName", students, () -> delegate.getMaxStudentFirstName(students));
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        return cachedList("sortStudentsById", students, () -> delegate.sortStudentsById(students));
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        return cachedList("sortStudentsByName", students, () -> delegate.sortStudentsByName(students));
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        return cachedList("findStudentsByFirstName", students,
+                () -> delegate.findStudentsByFirstName(students, name), name);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        return cachedList("findStudentsByLastName", students,
+                () -> delegate.findStudentsByLastName(students, name), name);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return cachedList("findStudentsByGroup", students,
+                () -> delegate.findStudentsByGroup(students, group), group);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        return cached("findStudentNamesByGroup", students,
+                () -> Collections.unmodifiableMap(delegate.findStudentNamesByGroup(students, group)), group);
+    }
+
+    @Override
+    public List<Group> getGroupsByName(final Collection<Student> students) {
+        return cachedList("getGroupsByName", students, () -> delegate.getGroupsByName(students));
+    }
+
+    @Override
+    public List<Group> getGroupsById(final Collection<Student> students) {
+        return cachedList("getGroupsById", students, () -> delegate.getGroupsById(students));
+    }
+
+    @Override
+    public GroupName getLargestGroup(final Collection<Student> students) {
+        return cached("getLargestGroup", students, () -> delegate.getLargestGroup(students));
+    }
+
+    @Override
+    public GroupName getLargestGroupFirstName(final Collection<Student> students) {
+        return cached("getLargestGroupFirstName", students, () -> delegate.getLargestGroupFirstName(students));
+    }
+
+    @Override
+    public String getMostPopularName(final Collection<Student> students) {
+        return cached("getMostPopularName", students, () -> delegate.getMostPopularName(students));
+    }
+
+    @Override
+    public String getLeastPopularName(final Collection<Student> students) {
+        return cached("getLeastPopularName", students, () -> delegate.getLeastPopularName(students));
+    }
+
+    @Override
+    public List<String> getFirstNames(final Collection<Student> students, final int[] indices) {
+        return cachedList("getFirstNamesByIndices", students,
+                () -> delegate.getFirstNames(students, indices), indicesKey(indices));
+    }
+
+    @Override
+    public List<String> getLastNames(final Collection<Student> students, final int[] indices) {
+        return cachedList("getLastNamesByIndices", students,
+                () -> delegate.getLastNames(students, indices), indicesKey(indices));
+    }
+
+    @Override
+    public List<GroupName> getGroups(final Collection<Student> students, final int[] indices) {
+        return cachedList("getGroupsByIndices", students,
+                () -> delegate.getGroups(students, indices), indicesKey(indices));
+    }
+
+    @Override
+    public List<String> getFullNames(final Collection<Student> students, final int[] indices) {
+        return cachedList("getFullNamesByIndices", students,
+                () -> delegate.getFullNames(students, indices), indicesKey(indices));
+    }
+}
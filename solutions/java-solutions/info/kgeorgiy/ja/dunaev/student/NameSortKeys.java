@@ -0,0 +1,120 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorts students in the {@link StudentDB#STUDENT_COMPARATOR} order using precomputed keys.
+ * First four chars of the last and first names are packed into {@code long} keys once per student,
+ * so most comparisons are resolved by comparing primitives. Full names are compared only on equal keys.
+ * Students are sorted by a stable merge sort over the array of their indices.
+ *
+ * @author Dunaev Kirill
+ */
+final class NameSortKeys {
+    private static final int PREFIX_CHARS = Long.SIZE / Character.SIZE;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final Student[] students;
+    private final long[] lastNameKeys;
+    private final long[] firstNameKeys;
+
+    private NameSortKeys(final Collection<Student> students) {
+        this.students = students.toArray(Student[]::new);
+        lastNameKeys = new long[this.students.length];
+        firstNameKeys = new long[this.students.length];
+        for (int i = 0; i < this.students.length; i++) {
+            lastNameKeys[i] = prefixKey(this.students[i].getLastName());
+            firstNameKeys[i] = prefixKey(this.students[i].getFirstName());
+        }
+    }
+
+    /**
+     * Sorts students in the {@link StudentDB#STUDENT_COMPARATOR} order.
+     *
+     * @param students students to sort
+     * @return sorted unmodifiable list
+     */
+    static List<Student> sort(final Collection<Student> students) {
+        return new NameSortKeys(students).sorted();
+    }
+
+    // compared unsigned, keys order is consistent with String.compareTo unless keys are equal
+    private static long prefixKey(final String s) {
+        long key = 0;
+        for (int i = 0; i < PREFIX_CHARS; i++) {
+            key = key << Character.SIZE | (i < s.length() ? s.charAt(i) : 0);
+        }
+        return key;
+    }
+
+    private List<Student> sorted() {
+        final int n = students.length;
+        final int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, new int[n], 0, n);
+
+        final Student[] result = new Student[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = students[order[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+
+    private void mergeSort(final int[] order, final int[] buffer, final int from, final int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(order, from, to);
+            return;
+        }
+
+        final int mid = (from + to) >>> 1;
+        mergeSort(order, buffer, from, mid);
+        mergeSort(order, buffer, mid, to);
+        if (compare(order[mid - 1], order[mid]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(order, from, buffer, from, to - from);
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            if (r >= to || l < mid && compare(buffer[l], buffer[r]) <= 0) {
+                order[i] = buffer[l++];
+            } else {
+                order[i] = buffer[r++];
+            }
+        }
+    }
+
+    private void insertionSort(final int[] order, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            final int current = order[i];
+            int j = i - 1;
+            for (; j >= from && compare(order[j], current) > 0; j--) {
+                order[j + 1] = order[j];
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private int compare(final int i, final int j) {
+        int result = Long.compareUnsigned(lastNameKeys[i], lastNameKeys[j]);
+        if (result == 0) {
+            result = students[i].getLastName().compareTo(students[j].getLastName());
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(firstNameKeys[i], firstNameKeys[j]);
+        }
+        if (result == 0) {
+            result = students[i].getFirstName().compareTo(students[j].getFirstName());
+        }
+        if (result == 0) {
+            result = Integer.compare(students[j].getId(), students[i].getId());
+        }
+        return result;
+    }
+}
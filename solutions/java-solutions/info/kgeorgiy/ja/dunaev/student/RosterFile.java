@@ -0,0 +1,185 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Binary roster file format. The file consists of:
+ * <ul>
+ *     <li>header: magic number, format version and number of students, {@code int} each;</li>
+ *     <li>fixed-size records: id, first name offset, last name offset and group ordinal, {@code int} each;</li>
+ *     <li>pool of distinct names: {@code int} length followed by the UTF-8 bytes.</li>
+ * </ul>
+ * Offsets are counted from the file start, all numbers are big-endian. Files are limited by 2 GiB.
+ * <p>
+ * The file is read by mapping it into memory, so loading does not parse the file
+ * and processes sharing the same file share the page cache.
+ *
+ * @author Dunaev Kirill
+ */
+public class RosterFile {
+    private static final int MAGIC = 0x53544442;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int RECORD_SIZE = 4 * Integer.BYTES;
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    private RosterFile() {
+    }
+
+    /**
+     * Writes the students to the file, replacing it if it exists.
+     * The roster is written to a temporary file in the same directory, which then atomically replaces the file,
+     * so readers never map a partially written roster.
+     *
+     * @param path     file to write
+     * @param students students to write
+     * @throws IOException if an I/O error occurs or the roster does not fit into the format
+     */
+    public static void write(final Path path, final Collection<Student> students) throws IOException {
+        // the same snapshot is used to build the pool and to write records, so all names have offsets
+        final Student[] snapshot = students.toArray(Student[]::new);
+        final Map<String, Integer> offsets = new HashMap<>();
+        final List<byte[]> pool = new ArrayList<>();
+        long poolEnd = HEADER_SIZE + (long) RECORD_SIZE * snapshot.length;
+        for (final Student student : snapshot) {
+            for (final String name : List.of(student.getFirstName(), student.getLastName())) {
+                if (!offsets.containsKey(name)) {
+                    final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    offsets.put(name, checkedOffset(poolEnd));
+                    pool.add(bytes);
+                    poolEnd += Integer.BYTES + bytes.length;
+                }
+            }
+        }
+        checkedOffset(poolEnd);
+
+        final Path target = path.toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.length);
+                for (final Student student : snapshot) {
+                    out.writeInt(student.getId());
+                    out.writeInt(offsets.get(student.getFirstName()));
+                    out.writeInt(offsets.get(student.getLastName()));
+                    out.writeInt(student.getGroup().ordinal());
+                }
+                for (final byte[] bytes : pool) {
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps the roster file into memory. Returned list reads students directly from the mapped file,
+     * decoding each student on access. The list is unmodifiable, random access and thread-safe.
+     * Only the header is checked here, so a corrupted record is reported when it is accessed,
+     * by an {@link UncheckedIOException} wrapping the same {@link IOException}.
+     *
+     * @param path file to map
+     * @return view of the students stored in the file
+     * @throws IOException if an I/O error occurs or the file is not a roster file
+     */
+    public static List<Student> map(final Path path) throws IOException {
+        final ByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Roster file is too large: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a roster file: " + path);
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported roster file version %d: %s".formatted(buffer.getInt(Integer.BYTES), path));
+        }
+        final int size = buffer.getInt(2 * Integer.BYTES);
+        if (size < 0 || HEADER_SIZE + (long) RECORD_SIZE * size > buffer.capacity()) {
+            throw new IOException("Corrupted roster file: " + path);
+        }
+        return new MappedRoster(path, buffer, size);
+    }
+
+    private static int checkedOffset(final long offset) throws IOException {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("Roster does not fit into 2 GiB file");
+        }
+        return (int) offset;
+    }
+
+    private static class MappedRoster extends AbstractList<Student> implements RandomAccess {
+        private final Path path;
+        private final ByteBuffer buffer;
+        private final int size;
+        private final int poolStart;
+
+        private MappedRoster(final Path path, final ByteBuffer buffer, final int size) {
+            this.path = path;
+            this.buffer = buffer;
+            this.size = size;
+            this.poolStart = HEADER_SIZE + RECORD_SIZE * size;
+        }
+
+        @Override
+        public Student get(final int index) {
+            Objects.checkIndex(index, size);
+            final int record = HEADER_SIZE + RECORD_SIZE * index;
+            final int group = buffer.getInt(record + 3 * Integer.BYTES);
+            if (group < 0 || group >= GROUPS.length) {
+                throw corrupted();
+            }
+            return new Student(
+                    buffer.getInt(record),
+                    readString(buffer.getInt(record + Integer.BYTES)),
+                    readString(buffer.getInt(record + 2 * Integer.BYTES)),
+                    GROUPS[group]
+            );
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private String readString(final int offset) {
+            // names are stored in the pool after the records, and must end within the file
+            if (offset < poolStart || offset > buffer.capacity() - Integer.BYTES) {
+                throw corrupted();
+            }
+            final int length = buffer.getInt(offset);
+            if (length < 0 || length > buffer.capacity() - Integer.BYTES - offset) {
+                throw corrupted();
+            }
+            final byte[] bytes = new byte[length];
+            buffer.get(offset + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private UncheckedIOException corrupted() {
+            return new UncheckedIOException(new IOException("Corrupted roster file: " + path));
+        }
+    }
+}
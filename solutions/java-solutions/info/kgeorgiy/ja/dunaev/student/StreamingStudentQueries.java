@@ -0,0 +1,159 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+
+/**
+ * Single-pass student queries over iterators. The students are never materialized:
+ * top-K queries keep bounded heaps and aggregations keep only per-group or per-name state.
+ * <p>
+ * Results are consistent with the corresponding {@link StudentDB} methods.
+ *
+ * @author Dunaev Kirill
+ */
+public class StreamingStudentQueries {
+    private static final Comparator<Map.Entry<GroupName, Integer>> LARGEST_GROUP_FIRST =
+            Map.Entry.<GroupName, Integer>comparingByValue()
+                    .thenComparing(Map.Entry.comparingByKey())
+                    .reversed();
+
+    private StreamingStudentQueries() {
+    }
+
+    /**
+     * Returns the first {@code k} students sorted as in {@link StudentDB#sortStudentsByName(Collection)}.
+     *
+     * @param students students to process
+     * @param k        maximum number of students to return
+     * @return at most {@code k} first students by name
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public static List<Student> firstByName(final Iterator<Student> students, final int k) {
+        return least(students, k, StudentDB.STUDENT_COMPARATOR);
+    }
+
+    /**
+     * Returns the first {@code k} students sorted as in {@link StudentDB#sortStudentsById(Collection)}.
+     *
+     * @param students students to process
+     * @param k        maximum number of students to return
+     * @return at most {@code k} first students by id
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public static List<Student> firstById(final Iterator<Student> students, final int k) {
+        return least(students, k, Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns names of the {@code k} largest groups, the largest first.
+     * Groups of the same size are ordered as in {@link StudentDB#getLargestGroup(Collection)}.
+     *
+     * @param students students to process
+     * @param k        maximum number of groups to return
+     * @return at most {@code k} largest groups
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public static List<GroupName> largestGroups(final Iterator<Student> students, final int k) {
+        final Map<GroupName, Integer> sizes = new EnumMap<>(GroupName.class);
+        students.forEachRemaining(s -> sizes.merge(s.getGroup(), 1, Integer::sum));
+        return least(sizes.entrySet().iterator(), k, LARGEST_GROUP_FIRST).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Same as {@link StudentDB#getLargestGroup(Collection)}.
+     *
+     * @param students students to process
+     * @return name of the group with the most students or {@code null} if there are no students
+     */
+    public static GroupName getLargestGroup(final Iterator<Student> students) {
+        final List<GroupName> largest = largestGroups(students, 1);
+        return largest.isEmpty() ? null : largest.getFirst();
+    }
+
+    /**
+     * Same as {@link StudentDB#getMaxStudentFirstName(List)}.
+     *
+     * @param students students to process
+     * @return first name of the student with the maximal id or empty string if there are no students
+     */
+    public static String getMaxStudentFirstName(final Iterator<Student> students) {
+        Student max = null;
+        while (students.hasNext()) {
+            final Student student = students.next();
+            if (max == null || student.compareTo(max) > 0) {
+                max = student;
+            }
+        }
+        return max == null ? "" : max.getFirstName();
+    }
+
+    /**
+     * Same as {@link StudentDB#getMostPopularName(Collection)}.
+     *
+     * @param students students to process
+     * @return first name presented in the most groups or empty string if there are no students
+     */
+    public static String getMostPopularName(final Iterator<Student> students) {
+        return nameByGroups(students, StudentDB.COMPARE_OCCURRENCES_DESC_THAN_NAME);
+    }
+
+    /**
+     * Same as {@link StudentDB#getLeastPopularName(Collection)}.
+     *
+     * @param students students to process
+     * @return first name presented in the least groups or empty string if there are no students
+     */
+    public static String getLeastPopularName(final Iterator<Student> students) {
+        return nameByGroups(students, StudentDB.COMPARE_OCCURRENCES_ASC_THAN_NAME);
+    }
+
+    private static String nameByGroups(
+            final Iterator<Student> students,
+            final Comparator<Map.Entry<String, Integer>> maxBy
+    ) {
+        final Map<String, Set<GroupName>> nameGroups = new HashMap<>();
+        students.forEachRemaining(s ->
+                nameGroups.computeIfAbsent(s.getFirstName(), n -> EnumSet.noneOf(GroupName.class)).add(s.getGroup()));
+        return nameGroups.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().size()))
+                .max(maxBy)
+                .map(Map.Entry::getKey)
+                .orElse("");
+    }
+
+    // equal values are ordered by their positions, as stable sorts of StudentDB do
+    private record Indexed<T>(T value, long index) {
+    }
+
+    private static <T> List<T> least(final Iterator<? extends T> values, final int k, final Comparator<? super T> comp) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Expected non-negative k, found %d".formatted(k));
+        }
+        if (k == 0) {
+            return List.of();
+        }
+
+        final Comparator<Indexed<T>> order = Comparator.<Indexed<T>, T>comparing(Indexed::value, comp)
+                .thenComparingLong(Indexed::index);
+        // max-heap of the k least values seen so far
+        final PriorityQueue<Indexed<T>> heap = new PriorityQueue<>(order.reversed());
+        long index = 0;
+        while (values.hasNext()) {
+            final Indexed<T> value = new Indexed<>(values.next(), index++);
+            if (heap.size() < k) {
+                heap.add(value);
+            } else if (order.compare(value, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(value);
+            }
+        }
+
+        final List<Indexed<T>> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result.stream().map(Indexed::value).toList();
+    }
+}
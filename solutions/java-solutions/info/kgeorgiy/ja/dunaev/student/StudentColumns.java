@@ -0,0 +1,280 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar immutable roster. Stores students as columns: ids, dictionary-encoded first and last names and groups.
+ * Each distinct name is stored once, queries scan the primitive columns and create {@link Student} objects
+ * only for the results. Materialized students share the name strings of the dictionaries.
+ * <p>
+ * Queries answer the same as the corresponding {@link StudentDB} methods applied to the roster.
+ *
+ * @author Dunaev Kirill
+ */
+public final class StudentColumns {
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    static {
+        if (GROUPS.length > Long.SIZE) {
+            throw new AssertionError("Groups do not fit into long masks");
+        }
+    }
+
+    private final int[] ids;
+    private final int[] firstNames;
+    private final int[] lastNames;
+    private final byte[] groups;
+    private final NameDictionary firstNameDictionary = new NameDictionary();
+    private final NameDictionary lastNameDictionary = new NameDictionary();
+
+    /**
+     * Creates columnar roster from the given students.
+     *
+     * @param students students to store
+     */
+    public StudentColumns(final Collection<Student> students) {
+        final int size = students.size();
+        ids = new int[size];
+        firstNames = new int[size];
+        lastNames = new int[size];
+        groups = new byte[size];
+
+        int row = 0;
+        for (final Student student : students) {
+            ids[row] = student.getId();
+            firstNames[row] = firstNameDictionary.encode(student.getFirstName());
+            lastNames[row] = lastNameDictionary.encode(student.getLastName());
+            groups[row] = (byte) student.getGroup().ordinal();
+            ++row;
+        }
+        firstNameDictionary.finish();
+        lastNameDictionary.finish();
+    }
+
+    /**
+     * Returns the number of students.
+     *
+     * @return the number of students
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Materializes the student stored in the given row.
+     *
+     * @param row row of the student
+     * @return the student
+     * @throws IndexOutOfBoundsException if the row is out of bounds
+     */
+    public Student get(final int row) {
+        Objects.checkIndex(row, ids.length);
+        return new Student(
+                ids[row],
+                firstNameDictionary.decode(firstNames[row]),
+                lastNameDictionary.decode(lastNames[row]),
+                GROUPS[groups[row]]
+        );
+    }
+
+    /**
+     * Returns unmodifiable random access view of the roster. Students are materialized on each access.
+     *
+     * @return view of the roster
+     */
+    public List<Student> asList() {
+        return new RosterView();
+    }
+
+    /**
+     * Same as {@link StudentDB#findStudentsByFirstName(Collection, String)}.
+     *
+     * @param name first name to find
+     * @return students with the given first name sorted by name
+     */
+    public List<Student> findStudentsByFirstName(final String name) {
+        final int code = firstNameDictionary.code(name);
+        return code < 0 ? List.of() : findBy(row -> firstNames[row] == code);
+    }
+
+    /**
+     * Same as {@link StudentDB#findStudentsByLastName(Collection, String)}.
+     *
+     * @param name last name to find
+     * @return students with the given last name sorted by name
+     */
+    public List<Student> findStudentsByLastName(final String name) {
+        final int code = lastNameDictionary.code(name);
+        return code < 0 ? List.of() : findBy(row -> lastNames[row] == code);
+    }
+
+    /**
+     * Same as {@link StudentDB#findStudentsByGroup(Collection, GroupName)}.
+     *
+     * @param group group to find
+     * @return students of the given group sorted by name
+     */
+    public List<Student> findStudentsByGroup(final GroupName group) {
+        final byte ordinal = (byte) group.ordinal();
+        return findBy(row -> groups[row] == ordinal);
+    }
+
+    /**
+     * Same as {@link StudentDB#getDistinctFirstNames(List)}.
+     *
+     * @return sorted distinct first names
+     */
+    public Set<String> getDistinctFirstNames() {
+        return new TreeSet<>(firstNameDictionary.values);
+    }
+
+    /**
+     * Same as {@link StudentDB#getLargestGroup(Collection)}.
+     *
+     * @return name of the group with the most students or {@code null} if the roster is empty
+     */
+    public GroupName getLargestGroup() {
+        final int[] sizes = new int[GROUPS.length];
+        for (final byte group : groups) {
+            ++sizes[group];
+        }
+        return maxGroup(sizes, false);
+    }
+
+    /**
+     * Same as {@link StudentDB#getLargestGroupFirstName(Collection)}.
+     *
+     * @return name of the group with the most distinct first names or {@code null} if the roster is empty
+     */
+    public GroupName getLargestGroupFirstName() {
+        final long[] masks = nameGroupMasks();
+        final int[] distinctNames = new int[GROUPS.length];
+        for (final long mask : masks) {
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                ++distinctNames[Long.numberOfTrailingZeros(rest)];
+            }
+        }
+        return maxGroup(distinctNames, true);
+    }
+
+    /**
+     * Same as {@link StudentDB#getMostPopularName(Collection)}.
+     *
+     * @return first name presented in the most groups or empty string if the roster is empty
+     */
+    public String getMostPopularName() {
+        return nameByGroups(StudentDB.COMPARE_OCCURRENCES_DESC_THAN_NAME);
+    }
+
+    /**
+     * Same as {@link StudentDB#getLeastPopularName(Collection)}.
+     *
+     * @return first name presented in the least groups or empty string if the roster is empty
+     */
+    public String getLeastPopularName() {
+        return nameByGroups(StudentDB.COMPARE_OCCURRENCES_ASC_THAN_NAME);
+    }
+
+    private List<Student> findBy(final IntPredicate rowFilter) {
+        return IntStream.range(0, ids.length)
+                .filter(rowFilter)
+                .mapToObj(this::get)
+                .sorted(StudentDB.STUDENT_COMPARATOR)
+                .toList();
+    }
+
+    private long[] nameGroupMasks() {
+        final long[] masks = new long[firstNameDictionary.size()];
+        for (int row = 0; row < ids.length; ++row) {
+            masks[firstNames[row]] |= 1L << groups[row];
+        }
+        return masks;
+    }
+
+    private String nameByGroups(final Comparator<Map.Entry<String, Integer>> maxBy) {
+        final long[] masks = nameGroupMasks();
+        return IntStream.range(0, masks.length)
+                .mapToObj(code -> Map.entry(firstNameDictionary.decode(code), Long.bitCount(masks[code])))
+                .max(maxBy)
+                .map(Map.Entry::getKey)
+                .orElse("");
+    }
+
+    // ties are broken by the greater group name, or by the lesser one if smallerOnTie is set
+    private static GroupName maxGroup(final int[] values, final boolean smallerOnTie) {
+        int best = -1;
+        for (int group = 0; group < values.length; ++group) {
+            if (values[group] > 0 && (best < 0 || values[group] > values[best]
+                    || values[group] == values[best] && !smallerOnTie)) {
+                best = group;
+            }
+        }
+        return best < 0 ? null : GROUPS[best];
+    }
+
+    private class RosterView extends AbstractList<Student> implements RandomAccess {
+        @Override
+        public Student get(final int index) {
+            return StudentColumns.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return StudentColumns.this.size();
+        }
+    }
+
+    // names are encoded through a hash map while the roster is built, then looked up by binary search,
+    // so the built roster keeps only the names and their sorted order
+    private static class NameDictionary {
+        private Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] sorted;
+
+        private int encode(final String value) {
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        private void finish() {
+            sorted = IntStream.range(0, values.size())
+                    .boxed()
+                    .sorted(Comparator.comparing(values::get))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            codes = null;
+        }
+
+        private int code(final String value) {
+            int low = 0;
+            int high = sorted.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final int result = values.get(sorted[mid]).compareTo(value);
+                if (result < 0) {
+                    low = mid + 1;
+                } else if (result > 0) {
+                    high = mid - 1;
+                } else {
+                    return sorted[mid];
+                }
+            }
+            return -1;
+        }
+
+        private String decode(final int code) {
+            return values.get(code);
+        }
+
+        private int size() {
+            return values.size();
+        }
+    }
+}
@@ -6,10 +6,17 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+/**
+ * Student queries implementation. Queries may run sequentially or using parallel streams,
+ * results of both modes are identical.
+ *
+ * @author Dunaev Kirill
+ */
 public class StudentDB implements AdvancedQuery {
-    private static final Comparator<Student> STUDENT_COMPARATOR = Comparator.comparing(Student::getLastName)
+    static final Comparator<Student> STUDENT_COMPARATOR = Comparator.comparing(Student::getLastName)
             .thenComparing(Student::getFirstName)
             .thenComparing(Comparator.comparingInt(Student::getId).reversed());
 
@@ -29,6 +36,24 @@ public class StudentDB implements AdvancedQuery {
                     .thenComparing(Map.Entry.<String, Integer>comparingByKey().reversed());
     public static final Comparator<Group> COMPARE_BY_GROUP_NAME = Comparator.comparing(Group::getName);
 
+    private final boolean parallel;
+
+    /**
+     * Creates sequential queries implementation.
+     */
+    public StudentDB() {
+        this(false);
+    }
+
+    /**
+     * Creates queries implementation.
+     *
+     * @param parallel whether queries should be run using parallel streams
+     */
+    public StudentDB(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
     private static String getFullName(Student student) {
         return student.getFirstName() + " " + student.getLastName();
     }
@@ -125,27 +150,42 @@ public class StudentDB implements AdvancedQuery {
         return getGroupBy(students, GROUP_BY_STUDENT_DISTINCT_NAMES_COMPARATOR);
     }
 
+    private <T> Stream<T> stream(Collection<T> collection) {
+        if (!parallel) {
+            return collection.stream();
+        }
+        // parallel streams keep encounter order of lists only, so ties are broken as in the sequential mode
+        return (collection instanceof List<T> ? collection : new ArrayList<>(collection)).parallelStream();
+    }
+
     private <R> List<R> getStudentCharacteristic(Collection<Student> students, Function<Student, R> mapper) {
-        return students.stream()
+        return stream(students)
                 .map(mapper)
                 .toList();
     }
 
     private List<Student> streamSortBy(Stream<Student> studentStream, Comparator<Student> comp) {
+        if (comp == STUDENT_COMPARATOR && !parallel) {
+            return NameSortKeys.sort(studentStream.toList());
+        }
         return studentStream.sorted(comp).toList();
     }
 
     private List<Student> sortBy(Collection<Student> students, Comparator<Student> comp) {
-        return streamSortBy(students.stream(), comp);
+        if (comp == STUDENT_COMPARATOR && !parallel) {
+            return NameSortKeys.sort(students);
+        }
+        return streamSortBy(stream(students), comp);
     }
 
     private <T> List<Student> findBy(Collection<Student> students, Function<Student, T> keyExtractor, T objToCompare) {
-        return streamSortBy(students.stream()
+        return streamSortBy(stream(students)
                         .filter(s -> keyExtractor.apply(s).equals(objToCompare)),
                 STUDENT_COMPARATOR);
     }
 
     private Map<GroupName, List<Student>> mapGroupSortedStudents(Collection<Student> students, Comparator<Student> comp) {
+        // the sort is stable and the grouping keeps encounter order, so equal students keep their order in both modes
         return recollect(sortBy(students, comp), Collectors.groupingBy(Student::getGroup));
     }
 
@@ -161,12 +201,12 @@ public class StudentDB implements AdvancedQuery {
     }
 
     private <T, R> R recollect(Collection<T> students, Collector<T, ?, R> downstream) {
-        return students.stream()
+        return stream(students)
                 .collect(downstream);
     }
 
     private <T, R> R maxMapOrElse(Collection<T> students, Comparator<T> maxBy, Function<T, R> mapper, R defaultValue) {
-        return students.stream()
+        return stream(students)
                 .max(maxBy)
                 .map(mapper)
                 .orElse(defaultValue);
@@ -192,10 +232,13 @@ public class StudentDB implements AdvancedQuery {
     }
 
     private Map<String, Integer> countStudentNameOccurrences(Collection<Student> students) {
-        return recollect(students, Collectors.groupingBy(Student::getFirstName,
-                Collectors.collectingAndThen(
-                        Collectors.mapping(Student::getGroup, Collectors.toSet()),
-                        Set::size)));
+        final Collector<Student, ?, Integer> distinctGroups = Collectors.collectingAndThen(
+                Collectors.mapping(Student::getGroup, Collectors.toSet()),
+                Set::size);
+        // numbers of distinct groups do not depend on the encounter order, so the grouping may be concurrent
+        return parallel
+                ? recollect(students, Collectors.groupingByConcurrent(Student::getFirstName, distinctGroups))
+                : recollect(students, Collectors.groupingBy(Student::getFirstName, distinctGroups));
     }
 
     @Override
@@ -218,9 +261,60 @@ public class StudentDB implements AdvancedQuery {
         return getByIds(students, indices, StudentDB::getFullName);
     }
 
+    /**
+     * Same as {@link #getFirstNames(Collection, int[])}, but takes indices as a stream.
+     *
+     * @param students students to get from
+     * @param indices  indices of the students
+     * @return first names of the students with the given indices
+     */
+    public List<String> getFirstNames(Collection<Student> students, IntStream indices) {
+        return getByIds(students, indices, Student::getFirstName);
+    }
+
+    /**
+     * Same as {@link #getLastNames(Collection, int[])}, but takes indices as a stream.
+     *
+     * @param students students to get from
+     * @param indices  indices of the students
+     * @return last names of the students with the given indices
+     */
+    public List<String> getLastNames(Collection<Student> students, IntStream indices) {
+        return getByIds(students, indices, Student::getLastName);
+    }
+
+    /**
+     * Same as {@link #getGroups(Collection, int[])}, but takes indices as a stream.
+     *
+     * @param students students to get from
+     * @param indices  indices of the students
+     * @return groups of the students with the given indices
+     */
+    public List<GroupName> getGroups(Collection<Student> students, IntStream indices) {
+        return getByIds(students, indices, Student::getGroup);
+    }
+
+    /**
+     * Same as {@link #getFullNames(Collection, int[])}, but takes indices as a stream.
+     *
+     * @param students students to get from
+     * @param indices  indices of the students
+     * @return full names of the students with the given indices
+     */
+    public List<String> getFullNames(Collection<Student> students, IntStream indices) {
+        return getByIds(students, indices, StudentDB::getFullName);
+    }
+
     private <R> List<R> getByIds(Collection<Student> students, int[] indices, Function<Student, R> mapper) {
-        return Arrays.stream(indices)
-                .mapToObj(recollect(students, Collectors.toList())::get)
+        return getByIds(students, Arrays.stream(indices), mapper);
+    }
+
+    private <R> List<R> getByIds(Collection<Student> students, IntStream indices, Function<Student, R> mapper) {
+        final List<Student> randomAccess = students instanceof List<Student> list && list instanceof RandomAccess
+                ? list
+                : new ArrayList<>(students);
+        return (parallel ? indices.parallel() : indices)
+                .mapToObj(randomAccess::get)
                 .map(mapper)
                 .toList();
     }
@@ -0,0 +1,180 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Benchmark of the {@link StudentDB} queries over synthetic rosters.
+ * Each query is warmed up and then run repeatedly, average time and allocated bytes per operation are reported.
+ * <p>
+ * Roster cardinalities are controlled by the arguments: number of students, number of groups,
+ * number of distinct first names and a skew. Group and first name frequencies follow Zipf distribution
+ * with the skew as its exponent, so zero skew means uniform distribution.
+ *
+ * @author Dunaev Kirill
+ */
+public class StudentDBBenchmark {
+    private static final int DEFAULT_STUDENTS = 100_000;
+    private static final int DEFAULT_FIRST_NAMES = 1_000;
+    private static final double DEFAULT_SKEW = 1.0;
+    private static final int LAST_NAMES_RATIO = 10;
+    private static final int INDICES = 1_000;
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // consumes results, so that the queries are not optimized out
+    private static int blackhole;
+
+    private StudentDBBenchmark() {
+    }
+
+    /**
+     * Generates synthetic roster.
+     *
+     * @param students   number of students
+     * @param groups     number of groups, at most the number of {@link GroupName} values
+     * @param firstNames number of distinct first names
+     * @param skew       Zipf exponent of the group and first name frequencies
+     * @param seed       random seed
+     * @return the roster, students ids are unique
+     * @throws IllegalArgumentException if the cardinalities are not positive or there are too many groups
+     */
+    public static List<Student> generateRoster(
+            final int students,
+            final int groups,
+            final int firstNames,
+            final double skew,
+            final long seed
+    ) {
+        if (students <= 0 || groups <= 0 || firstNames <= 0 || groups > GROUPS.length || skew < 0) {
+            throw new IllegalArgumentException("Bad roster cardinalities");
+        }
+
+        final Random random = new Random(seed);
+        final double[] groupWeights = zipfCumulative(groups, skew);
+        final double[] nameWeights = zipfCumulative(firstNames, skew);
+        final int lastNames = Math.max(1, students / LAST_NAMES_RATIO);
+
+        final List<Student> roster = new ArrayList<>(students);
+        for (int id = 0; id < students; id++) {
+            roster.add(new Student(
+                    id,
+                    "First" + sample(nameWeights, random),
+                    "Last" + random.nextInt(lastNames),
+                    GROUPS[sample(groupWeights, random)]
+            ));
+        }
+        Collections.shuffle(roster, random);
+        return roster;
+    }
+
+    private static double[] zipfCumulative(final int n, final double skew) {
+        final double[] cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(final double[] cumulative, final Random random) {
+        final int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    private static Map<String, Function<List<Student>, Object>> queries(final StudentDB db, final int[] indices) {
+        final Map<String, Function<List<Student>, Object>> queries = new LinkedHashMap<>();
+        queries.put("getFirstNames", db::getFirstNames);
+        queries.put("getLastNames", db::getLastNames);
+        queries.put("getGroups", db::getGroups);
+        queries.put("getFullNames", db::getFullNames);
+        queries.put("getDistinctFirstNames", db::getDistinctFirstNames);
+        queries.put("getMaxStudentFirstName", db::getMaxStudentFirstName);
+        queries.put("sortStudentsById", db::sortStudentsById);
+        queries.put("sortStudentsByName", db::sortStudentsByName);
+        // baseline for the prefix keys sort used by the sequential mode
+        queries.put("sortByNameComparator", s -> s.stream().sorted(StudentDB.STUDENT_COMPARATOR).toList());
+        queries.put("findStudentsByFirstName", s -> db.findStudentsByFirstName(s, "First0"));
+        queries.put("findStudentsByLastName", s -> db.findStudentsByLastName(s, "Last0"));
+        queries.put("findStudentsByGroup", s -> db.findStudentsByGroup(s, GROUPS[0]));
+        queries.put("findStudentNamesByGroup", s -> db.findStudentNamesByGroup(s, GROUPS[0]));
+        queries.put("getGroupsByName", db::getGroupsByName);
+        queries.put("getGroupsById", db::getGroupsById);
+        queries.put("getLargestGroup", db::getLargestGroup);
+        queries.put("getLargestGroupFirstName", db::getLargestGroupFirstName);
+        queries.put("getMostPopularName", db::getMostPopularName);
+        queries.put("getLeastPopularName", db::getLeastPopularName);
+        queries.put("getFirstNamesByIndices", s -> db.getFirstNames(s, indices));
+        queries.put("getLastNamesByIndices", s -> db.getLastNames(s, indices));
+        queries.put("getGroupsByIndices", s -> db.getGroups(s, indices));
+        queries.put("getFullNamesByIndices", s -> db.getFullNames(s, indices));
+        return queries;
+    }
+
+    private static void measure(final String name, final Function<List<Student>, Object> query, final List<Student> roster) {
+        runFor(WARMUP_NANOS, query, roster);
+
+        // parallel queries allocate in the common pool workers, so allocations of all threads are counted
+        final long allocatedBefore = THREADS.getTotalThreadAllocatedBytes();
+        final long start = System.nanoTime();
+        final long operations = runFor(MEASURE_NANOS, query, roster);
+        final long elapsed = System.nanoTime() - start;
+        final long allocated = THREADS.getTotalThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf(
+                "%-26s %14.1f us/op %16d B/op%n",
+                name, elapsed / 1e3 / operations, allocated / operations
+        );
+    }
+
+    private static long runFor(final long nanos, final Function<List<Student>, Object> query, final List<Student> roster) {
+        final long deadline = System.nanoTime() + nanos;
+        long operations = 0;
+        do {
+            blackhole += System.identityHashCode(query.apply(roster));
+            ++operations;
+        } while (System.nanoTime() < deadline);
+        return operations;
+    }
+
+    /**
+     * Runs the benchmark and prints results.
+     * Usage: <pre>{@code StudentDBBenchmark [students [groups [firstNames [skew [parallel]]]]]}</pre>
+     * Default values are {@value DEFAULT_STUDENTS} students, all groups, {@value DEFAULT_FIRST_NAMES} first names,
+     * {@value DEFAULT_SKEW} skew and sequential mode.
+     *
+     * @param args command line arguments
+     */
+    public static void main(final String[] args) {
+        Objects.requireNonNull(args);
+        Arrays.stream(args).forEach(Objects::requireNonNull);
+
+        try {
+            final int students = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_STUDENTS;
+            final int groups = args.length > 1 ? Integer.parseInt(args[1]) : GROUPS.length;
+            final int firstNames = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_FIRST_NAMES;
+            final double skew = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_SKEW;
+            final boolean parallel = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+            final List<Student> roster = generateRoster(students, groups, firstNames, skew, 0);
+            final int[] indices = new Random(0).ints(INDICES, 0, students).toArray();
+            System.out.printf(
+                    "Roster: %d students, %d groups, %d first names, skew %.2f, %s mode%n",
+                    students, groups, firstNames, skew, parallel ? "parallel" : "sequential"
+            );
+            queries(new StudentDB(parallel), indices).forEach((name, query) -> measure(name, query, roster));
+        } catch (final IllegalArgumentException e) {
+            System.err.println("Bad benchmark arguments: " + e.getMessage());
+            System.err.println("Usage: StudentDBBenchmark [students [groups [firstNames [skew [parallel]]]]]");
+        }
+    }
+}
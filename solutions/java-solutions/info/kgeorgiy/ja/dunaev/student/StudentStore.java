@@ -0,0 +1,211 @@
+package info.kgeorgiy.ja.dunaev.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Mutable student store. Keeps students by their ids and incrementally maintains
+ * aggregates for the group and name queries, so no query rescans the whole roster after a change.
+ * <p>
+ * Queries answer the same as the corresponding {@link StudentDB} methods applied to {@link #getStudents()}.
+ * The store is not thread-safe.
+ *
+ * @author Dunaev Kirill
+ */
+public final class StudentStore {
+    private final Map<Integer, Student> students = new HashMap<>();
+    private final Map<GroupName, Integer> groupSizes = new EnumMap<>(GroupName.class);
+    private final Map<GroupName, Map<String, Integer>> groupFirstNames = new EnumMap<>(GroupName.class);
+    private final Map<String, Map<GroupName, Integer>> firstNameGroups = new HashMap<>();
+    private long version;
+
+    /**
+     * Creates empty store.
+     */
+    public StudentStore() {
+    }
+
+    /**
+     * Creates store containing the given students.
+     *
+     * @param students students to add
+     * @throws IllegalArgumentException if there are students with the same id
+     */
+    public StudentStore(final Collection<Student> students) {
+        students.forEach(this::add);
+    }
+
+    /**
+     * Adds a student.
+     *
+     * @param student student to add
+     * @throws IllegalArgumentException if there is a student with the same id already
+     */
+    public void add(final Student student) {
+        Objects.requireNonNull(student);
+        if (students.putIfAbsent(student.getId(), student) != null) {
+            throw new IllegalArgumentException("Student with id %d already exists".formatted(student.getId()));
+        }
+        index(student, 1);
+    }
+
+    /**
+     * Removes the student with the given id.
+     *
+     * @param id id of the student
+     * @return removed student or {@code null} if there was no such student
+     */
+    public Student remove(final int id) {
+        final Student removed = students.remove(id);
+        if (removed != null) {
+            index(removed, -1);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the given student. Student is matched by the id.
+     *
+     * @param student student to remove
+     * @return {@code true} if the student was present
+     */
+    public boolean remove(final Student student) {
+        return remove(student.getId()) != null;
+    }
+
+    /**
+     * Replaces the student with the same id by the given one, or adds it if there is no such student.
+     *
+     * @param student new student information
+     * @return previous student with the same id or {@code null} if there was no such student
+     */
+    public Student update(final Student student) {
+        Objects.requireNonNull(student);
+        final Student previous = students.put(student.getId(), student);
+        if (previous != null) {
+            index(previous, -1);
+        }
+        index(student, 1);
+        return previous;
+    }
+
+    /**
+     * Returns the student with the given id.
+     *
+     * @param id id of the student
+     * @return the student or {@code null} if there is no such student
+     */
+    public Student get(final int id) {
+        return students.get(id);
+    }
+
+    /**
+     * Returns unmodifiable view of the stored students. The view should not be used concurrently with modifications.
+     *
+     * @return the stored students
+     */
+    public Collection<Student> getStudents() {
+        return Collections.unmodifiableCollection(students.values());
+    }
+
+    /**
+     * Returns the number of stored students.
+     *
+     * @return the number of students
+     */
+    public int size() {
+        return students.size();
+    }
+
+    /**
+     * Returns the version of the store. The version is changed by every modification.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Same as {@link StudentDB#getLargestGroup(Collection)}.
+     *
+     * @return name of the group with the most students or {@code null} if the store is empty
+     */
+    public GroupName getLargestGroup() {
+        return maxGroup(Comparator.comparing(groupSizes::get));
+    }
+
+    /**
+     * Same as {@link StudentDB#getLargestGroupFirstName(Collection)}.
+     *
+     * @return name of the group with the most distinct first names or {@code null} if the store is empty
+     */
+    public GroupName getLargestGroupFirstName() {
+        return maxGroup(Comparator.<GroupName>comparingInt(g -> groupFirstNames.get(g).size())
+                .thenComparing(Comparator.reverseOrder()));
+    }
+
+    /**
+     * Same as {@link StudentDB#getMostPopularName(Collection)}.
+     *
+     * @return first name presented in the most groups or empty string if the store is empty
+     */
+    public String getMostPopularName() {
+        return nameByGroups(StudentDB.COMPARE_OCCURRENCES_DESC_THAN_NAME);
+    }
+
+    /**
+     * Same as {@link StudentDB#getLeastPopularName(Collection)}.
+     *
+     * @return first name presented in the least groups or empty string if the store is empty
+     */
+    public String getLeastPopularName() {
+        return nameByGroups(StudentDB.COMPARE_OCCURRENCES_ASC_THAN_NAME);
+    }
+
+    private GroupName maxGroup(final Comparator<GroupName> comp) {
+        return groupSizes.keySet().stream()
+                .max(comp.thenComparing(Comparator.naturalOrder()))
+                .orElse(null);
+    }
+
+    private String nameByGroups(final Comparator<Map.Entry<String, Integer>> maxBy) {
+        return firstNameGroups.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().size()))
+                .max(maxBy)
+                .map(Map.Entry::getKey)
+                .orElse("");
+    }
+
+    private void index(final Student student, final int delta) {
+        final GroupName group = student.getGroup();
+        final String firstName = student.getFirstName();
+
+        ++version;
+        groupSizes.compute(group, (g, size) -> nonZeroOrNull(size, delta));
+        count(groupFirstNames, group, g -> new HashMap<>(), firstName, delta);
+        count(firstNameGroups, firstName, n -> new EnumMap<>(GroupName.class), group, delta);
+    }
+
+    private static <K, V> void count(
+            final Map<K, Map<V, Integer>> counters,
+            final K key,
+            final Function<K, Map<V, Integer>> factory,
+            final V value,
+            final int delta
+    ) {
+        final Map<V, Integer> counter = counters.computeIfAbsent(key, factory);
+        counter.compute(value, (v, count) -> nonZeroOrNull(count, delta));
+        if (counter.isEmpty()) {
+            counters.remove(key);
+        }
+    }
+
+    private static Integer nonZeroOrNull(final Integer count, final int delta) {
+        final int result = (count == null ? 0 : count) + delta;
+        return result == 0 ? null : result;
+    }
+}
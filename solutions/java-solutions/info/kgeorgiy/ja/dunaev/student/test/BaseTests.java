@@ -0,0 +1,39 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Base class for student tests that generates rosters.
+ *
+ * @author Dunaev Kirill
+ */
+@TestMethodOrder(MethodOrderer.MethodName.class)
+public class BaseTests {
+    protected static final Random RANDOM = new Random(297562875629470103L);
+    protected static final GroupName[] GROUPS = GroupName.values();
+
+    /**
+     * Generates roster with many equal ids and names, so that the queries have to break ties.
+     *
+     * @param size  number of students
+     * @param names number of distinct ids, first names and last names
+     * @return the roster
+     */
+    protected static List<Student> roster(final int size, final int names) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Student(
+                        RANDOM.nextInt(names),
+                        "First" + RANDOM.nextInt(names),
+                        "Last" + RANDOM.nextInt(names),
+                        GROUPS[RANDOM.nextInt(GROUPS.length)]
+                ))
+                .toList();
+    }
+}
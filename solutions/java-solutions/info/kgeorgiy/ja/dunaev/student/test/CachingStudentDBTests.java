@@ -0,0 +1,125 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.ja.dunaev.student.CachingStudentDB;
+import info.kgeorgiy.ja.dunaev.student.StudentDB;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Tests for {@link CachingStudentDB}.
+ *
+ * @author Dunaev Kirill
+ */
+public class CachingStudentDBTests extends BaseTests {
+    private static final Duration LONG_TTL = Duration.ofHours(1);
+
+    private static CachingStudentDB cache(final int maxSize, final Duration ttl) {
+        return new CachingStudentDB(new StudentDB(), maxSize, ttl);
+    }
+
+    private static void assertCounters(final CachingStudentDB db, final long hits, final long misses) {
+        Assertions.assertEquals(hits, db.getHits(), "hits");
+        Assertions.assertEquals(misses, db.getMisses(), "misses");
+    }
+
+    @Test
+    public void test01_hitsAndMisses() {
+        final CachingStudentDB db = cache(10, LONG_TTL);
+        final List<Student> roster = roster(100, 5);
+
+        final List<String> names = db.getFirstNames(roster);
+        assertCounters(db, 0, 1);
+        Assertions.assertSame(names, db.getFirstNames(roster));
+        assertCounters(db, 1, 1);
+
+        Assertions.assertEquals(new StudentDB().getFirstNames(roster), names);
+        db.getLastNames(roster);
+        db.findStudentsByFirstName(roster, "First0");
+        db.findStudentsByFirstName(roster, "First1");
+        db.getFirstNames(roster(100, 5));
+        assertCounters(db, 1, 5);
+        db.findStudentsByFirstName(roster, "First1");
+        assertCounters(db, 2, 5);
+    }
+
+    @Test
+    public void test02_unmodifiableResults() {
+        final CachingStudentDB db = cache(10, LONG_TTL);
+        final List<Student> roster = roster(100, 5);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> db.getFirstNames(roster).clear());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> db.sortStudentsById(roster).clear());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> db.getGroupsByName(roster).clear());
+        Assertions.assertThrows(
+                UnsupportedOperationException.class,
+                () -> db.getFullNames(roster, new int[]{0, 1}).clear()
+        );
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> db.getDistinctFirstNames(roster).clear());
+        Assertions.assertThrows(
+                UnsupportedOperationException.class,
+                () -> db.findStudentNamesByGroup(roster, GROUPS[0]).clear()
+        );
+    }
+
+    @Test
+    public void test03_timeToLive() throws InterruptedException {
+        final CachingStudentDB db = cache(10, Duration.ofMillis(50));
+        final List<Student> roster = roster(100, 5);
+
+        db.getFirstNames(roster);
+        db.getFirstNames(roster);
+        assertCounters(db, 1, 1);
+        Thread.sleep(100);
+        db.getFirstNames(roster);
+        assertCounters(db, 1, 2);
+        db.getFirstNames(roster);
+        assertCounters(db, 2, 2);
+    }
+
+    @Test
+    public void test04_leastRecentlyUsedEviction() {
+        final CachingStudentDB db = cache(2, LONG_TTL);
+        final List<Student> roster = roster(100, 5);
+
+        db.getFirstNames(roster);
+        db.getLastNames(roster);
+        db.getFirstNames(roster);
+        assertCounters(db, 1, 2);
+
+        db.getFullNames(roster);
+        Assertions.assertEquals(1, db.getEvictions());
+        Assertions.assertEquals(2, db.size());
+
+        db.getFirstNames(roster);
+        assertCounters(db, 2, 3);
+        db.getLastNames(roster);
+        assertCounters(db, 2, 4);
+        Assertions.assertEquals(2, db.getEvictions());
+    }
+
+    @Test
+    public void test05_versionAndInvalidate() {
+        final CachingStudentDB db = cache(10, LONG_TTL);
+        final List<Student> roster = roster(100, 5);
+
+        db.getFirstNames(roster);
+        db.setRosterVersion(0);
+        db.getFirstNames(roster);
+        assertCounters(db, 1, 1);
+
+        db.setRosterVersion(1);
+        Assertions.assertEquals(1, db.getRosterVersion());
+        Assertions.assertEquals(0, db.size());
+        db.getFirstNames(roster);
+        assertCounters(db, 1, 2);
+
+        db.invalidate();
+        Assertions.assertEquals(0, db.size());
+        db.getFirstNames(roster);
+        db.getFirstNames(roster);
+        assertCounters(db, 2, 3);
+    }
+}
@@ -0,0 +1,156 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.ja.dunaev.student.RosterFile;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Tests for {@link RosterFile}.
+ *
+ * @author Dunaev Kirill
+ */
+public class RosterFileTests extends BaseTests {
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int RECORD_SIZE = 4 * Integer.BYTES;
+
+    private Path dir;
+    private Path file;
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        dir = Files.createTempDirectory(RosterFileTests.class.getSimpleName());
+        file = dir.resolve("roster.bin");
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        try (final Stream<Path> files = Files.list(dir)) {
+            for (final Path path : files.toList()) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static List<String> describe(final Collection<Student> students) {
+        return students.stream()
+                .map(s -> "%d %s %s %s".formatted(s.getId(), s.getFirstName(), s.getLastName(), s.getGroup()))
+                .toList();
+    }
+
+    private List<String> roundTrip(final Collection<Student> students) throws IOException {
+        RosterFile.write(file, students);
+        return describe(RosterFile.map(file));
+    }
+
+    private void corrupt(final long position, final int value) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), position);
+        }
+    }
+
+    private void truncate(final long size) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    @Test
+    public void test01_roundTrip() throws IOException {
+        final List<List<Student>> rosters = List.of(
+                List.of(),
+                roster(1, 1),
+                roster(1_000, 10),
+                roster(1_000, 1_000),
+                List.of(new Student(-1, "Кирилл", "", GROUPS[0]), new Student(1, "名前", "\0", GROUPS[1]))
+        );
+        for (final List<Student> students : rosters) {
+            Assertions.assertEquals(describe(students), roundTrip(students));
+        }
+    }
+
+    @Test
+    public void test02_unorderedCollection() throws IOException {
+        final Set<Student> students = new HashSet<>(roster(1_000, 10));
+        Assertions.assertEquals(describe(students), roundTrip(students));
+    }
+
+    @Test
+    public void test03_replace() throws IOException {
+        roundTrip(roster(1_000, 10));
+        final List<Student> students = roster(10, 10);
+        Assertions.assertEquals(describe(students), roundTrip(students));
+        try (final Stream<Path> files = Files.list(dir)) {
+            Assertions.assertEquals(List.of(file), files.toList(), "Temporary files left");
+        }
+    }
+
+    @Test
+    public void test04_truncatedHeader() throws IOException {
+        RosterFile.write(file, roster(100, 10));
+        for (final long size : new long[]{0, HEADER_SIZE - 1, HEADER_SIZE, HEADER_SIZE + RECORD_SIZE * 50}) {
+            truncate(size);
+            Assertions.assertThrows(IOException.class, () -> RosterFile.map(file), "size = " + size);
+        }
+    }
+
+    @Test
+    public void test05_truncatedPool() throws IOException {
+        final List<Student> students = roster(100, 100);
+        RosterFile.write(file, students);
+        truncate(Files.size(file) - 1);
+
+        final List<Student> mapped = RosterFile.map(file);
+        Assertions.assertEquals(students.size(), mapped.size());
+        Assertions.assertThrows(UncheckedIOException.class, () -> describe(mapped));
+    }
+
+    @Test
+    public void test06_corruptedHeader() throws IOException {
+        RosterFile.write(file, roster(100, 10));
+        corrupt(2 * Integer.BYTES, -1);
+        Assertions.assertThrows(IOException.class, () -> RosterFile.map(file));
+        corrupt(2 * Integer.BYTES, Integer.MAX_VALUE);
+        Assertions.assertThrows(IOException.class, () -> RosterFile.map(file));
+        corrupt(Integer.BYTES, 2);
+        Assertions.assertThrows(IOException.class, () -> RosterFile.map(file));
+        corrupt(0, 0);
+        Assertions.assertThrows(IOException.class, () -> RosterFile.map(file));
+    }
+
+    @Test
+    public void test07_corruptedRecords() throws IOException {
+        final List<Student> students = roster(100, 10);
+        final int[] fields = {1, 2, 3};
+        final int[] values = {-1, 0, HEADER_SIZE, Integer.MAX_VALUE, GROUPS.length};
+        for (final int field : fields) {
+            for (final int value : values) {
+                if (field == 3 && value == 0) {
+                    continue;
+                }
+                RosterFile.write(file, students);
+                corrupt(HEADER_SIZE + RECORD_SIZE * 10 + (long) Integer.BYTES * field, value);
+                final List<Student> mapped = RosterFile.map(file);
+                Assertions.assertEquals(describe(students.subList(0, 10)), describe(mapped.subList(0, 10)));
+                Assertions.assertThrows(
+                        UncheckedIOException.class,
+                        () -> mapped.get(10),
+                        "field = %d, value = %d".formatted(field, value)
+                );
+            }
+        }
+    }
+}
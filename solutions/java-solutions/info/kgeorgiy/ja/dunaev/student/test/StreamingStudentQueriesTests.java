@@ -0,0 +1,128 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.ja.dunaev.student.StreamingStudentQueries;
+import info.kgeorgiy.ja.dunaev.student.StudentDB;
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests that {@link StreamingStudentQueries} answer the same as {@link StudentDB}.
+ *
+ * @author Dunaev Kirill
+ */
+public class StreamingStudentQueriesTests extends BaseTests {
+    private static final StudentDB DB = new StudentDB();
+
+    private static List<Integer> sizes(final int n) {
+        return List.of(0, 1, 2, n / 2, n - 1, n, n + 1, Integer.MAX_VALUE);
+    }
+
+    // groups are repeatedly taken as the largest group of the remaining students
+    private static List<GroupName> largestGroups(final List<Student> students, final int k) {
+        final List<GroupName> result = new ArrayList<>();
+        List<Student> remaining = students;
+        while (result.size() < k && !remaining.isEmpty()) {
+            final GroupName largest = DB.getLargestGroup(remaining);
+            result.add(largest);
+            remaining = remaining.stream().filter(s -> s.getGroup() != largest).toList();
+        }
+        return result;
+    }
+
+    private static void checkQueries(final List<Student> students) {
+        final List<Student> byName = DB.sortStudentsByName(students);
+        final List<Student> byId = DB.sortStudentsById(students);
+        for (final int k : sizes(students.size())) {
+            if (k < 0) {
+                continue;
+            }
+            final int limit = Math.min(k, students.size());
+            Assertions.assertEquals(
+                    byName.subList(0, limit),
+                    StreamingStudentQueries.firstByName(students.iterator(), k),
+                    "firstByName, k = " + k
+            );
+            Assertions.assertEquals(
+                    byId.subList(0, limit),
+                    StreamingStudentQueries.firstById(students.iterator(), k),
+                    "firstById, k = " + k
+            );
+        }
+        for (final int k : sizes(GROUPS.length)) {
+            if (k < 0) {
+                continue;
+            }
+            Assertions.assertEquals(
+                    largestGroups(students, k),
+                    StreamingStudentQueries.largestGroups(students.iterator(), k),
+                    "largestGroups, k = " + k
+            );
+        }
+
+        Assertions.assertEquals(
+                DB.getLargestGroup(students),
+                StreamingStudentQueries.getLargestGroup(students.iterator())
+        );
+        Assertions.assertEquals(
+                DB.getMaxStudentFirstName(students),
+                StreamingStudentQueries.getMaxStudentFirstName(students.iterator())
+        );
+        Assertions.assertEquals(
+                DB.getMostPopularName(students),
+                StreamingStudentQueries.getMostPopularName(students.iterator())
+        );
+        Assertions.assertEquals(
+                DB.getLeastPopularName(students),
+                StreamingStudentQueries.getLeastPopularName(students.iterator())
+        );
+    }
+
+    @Test
+    public void test01_empty() {
+        checkQueries(List.of());
+    }
+
+    @Test
+    public void test02_ties() {
+        // equal names and ids, equal group sizes and equal numbers of groups per name
+        checkQueries(List.of(
+                new Student(1, "A", "A", GROUPS[1]),
+                new Student(1, "A", "A", GROUPS[0]),
+                new Student(2, "B", "A", GROUPS[1]),
+                new Student(2, "B", "A", GROUPS[0]),
+                new Student(1, "A", "A", GROUPS[2])
+        ));
+        for (int i = 0; i < 100; i++) {
+            checkQueries(roster(RANDOM.nextInt(20), 2));
+        }
+    }
+
+    @Test
+    public void test03_random() {
+        for (final int names : new int[]{1, 5, 100, 10_000}) {
+            checkQueries(roster(1_000, names));
+        }
+    }
+
+    @Test
+    public void test04_negative() {
+        final List<Student> students = roster(10, 5);
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> StreamingStudentQueries.firstByName(students.iterator(), -1)
+        );
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> StreamingStudentQueries.firstById(students.iterator(), -1)
+        );
+        Assertions.assertThrows(
+                IllegalArgumentException.class,
+                () -> StreamingStudentQueries.largestGroups(students.iterator(), -1)
+        );
+    }
+}
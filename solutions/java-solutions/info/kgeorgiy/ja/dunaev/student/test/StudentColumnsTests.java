@@ -0,0 +1,63 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.ja.dunaev.student.StudentColumns;
+import info.kgeorgiy.ja.dunaev.student.StudentDB;
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Tests that {@link StudentColumns} answers the same as {@link StudentDB}.
+ *
+ * @author Dunaev Kirill
+ */
+public class StudentColumnsTests extends BaseTests {
+    private static final StudentDB DB = new StudentDB();
+
+    private static List<String> describe(final List<Student> students) {
+        return students.stream()
+                .map(s -> "%d %s %s %s".formatted(s.getId(), s.getFirstName(), s.getLastName(), s.getGroup()))
+                .toList();
+    }
+
+    private static void checkQueries(final List<Student> students, final int names) {
+        final StudentColumns columns = new StudentColumns(students);
+        Assertions.assertEquals(describe(students), describe(columns.asList()));
+        for (int i = -1; i <= names; i++) {
+            Assertions.assertEquals(
+                    describe(DB.findStudentsByFirstName(students, "First" + i)),
+                    describe(columns.findStudentsByFirstName("First" + i))
+            );
+            Assertions.assertEquals(
+                    describe(DB.findStudentsByLastName(students, "Last" + i)),
+                    describe(columns.findStudentsByLastName("Last" + i))
+            );
+        }
+        for (final GroupName group : GROUPS) {
+            Assertions.assertEquals(
+                    describe(DB.findStudentsByGroup(students, group)),
+                    describe(columns.findStudentsByGroup(group))
+            );
+        }
+        Assertions.assertEquals(DB.getDistinctFirstNames(students), columns.getDistinctFirstNames());
+        Assertions.assertEquals(DB.getLargestGroup(students), columns.getLargestGroup());
+        Assertions.assertEquals(DB.getLargestGroupFirstName(students), columns.getLargestGroupFirstName());
+        Assertions.assertEquals(DB.getMostPopularName(students), columns.getMostPopularName());
+        Assertions.assertEquals(DB.getLeastPopularName(students), columns.getLeastPopularName());
+    }
+
+    @Test
+    public void test01_empty() {
+        checkQueries(List.of(), 1);
+    }
+
+    @Test
+    public void test02_random() {
+        for (final int names : new int[]{1, 5, 100}) {
+            checkQueries(roster(1_000, names), names);
+        }
+    }
+}
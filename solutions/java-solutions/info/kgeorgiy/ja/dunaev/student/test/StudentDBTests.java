@@ -0,0 +1,81 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.ja.dunaev.student.StudentDB;
+import info.kgeorgiy.java.advanced.student.AdvancedQuery;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Tests that the parallel mode of {@link StudentDB} answers the same as the sequential one.
+ *
+ * @author Dunaev Kirill
+ */
+public class StudentDBTests extends BaseTests {
+    private static final AdvancedQuery SEQUENTIAL = new StudentDB();
+    private static final AdvancedQuery PARALLEL = new StudentDB(true);
+
+    private static void checkQueries(final Collection<Student> students) {
+        final List<Student> list = List.copyOf(students);
+        final int[] indices = RANDOM.ints(100, 0, Math.max(list.size(), 1)).toArray();
+        final String name = list.isEmpty() ? "First0" : list.get(0).getFirstName();
+        final String lastName = list.isEmpty() ? "Last0" : list.get(0).getLastName();
+
+        final Map<String, Function<AdvancedQuery, Object>> queries = new LinkedHashMap<>();
+        queries.put("getFirstNames", db -> db.getFirstNames(list));
+        queries.put("getLastNames", db -> db.getLastNames(list));
+        queries.put("getGroups", db -> db.getGroups(list));
+        queries.put("getFullNames", db -> db.getFullNames(list));
+        queries.put("getDistinctFirstNames", db -> db.getDistinctFirstNames(list));
+        queries.put("getMaxStudentFirstName", db -> db.getMaxStudentFirstName(list));
+        queries.put("sortStudentsById", db -> db.sortStudentsById(students));
+        queries.put("sortStudentsByName", db -> db.sortStudentsByName(students));
+        queries.put("findStudentsByFirstName", db -> db.findStudentsByFirstName(students, name));
+        queries.put("findStudentsByLastName", db -> db.findStudentsByLastName(students, lastName));
+        queries.put("findStudentsByGroup", db -> db.findStudentsByGroup(students, GROUPS[0]));
+        queries.put("findStudentNamesByGroup", db -> db.findStudentNamesByGroup(students, GROUPS[0]));
+        queries.put("getGroupsByName", db -> db.getGroupsByName(students));
+        queries.put("getGroupsById", db -> db.getGroupsById(students));
+        queries.put("getLargestGroup", db -> db.getLargestGroup(students));
+        queries.put("getLargestGroupFirstName", db -> db.getLargestGroupFirstName(students));
+        queries.put("getMostPopularName", db -> db.getMostPopularName(students));
+        queries.put("getLeastPopularName", db -> db.getLeastPopularName(students));
+        if (!list.isEmpty()) {
+            queries.put("getFirstNamesByIndices", db -> db.getFirstNames(students, indices));
+            queries.put("getLastNamesByIndices", db -> db.getLastNames(students, indices));
+            queries.put("getGroupsByIndices", db -> db.getGroups(students, indices));
+            queries.put("getFullNamesByIndices", db -> db.getFullNames(students, indices));
+        }
+
+        queries.forEach((query, f) -> Assertions.assertEquals(f.apply(SEQUENTIAL), f.apply(PARALLEL), query));
+    }
+
+    @Test
+    public void test01_empty() {
+        checkQueries(List.of());
+    }
+
+    @Test
+    public void test02_duplicateIdsAndNames() {
+        for (int i = 0; i < 10; i++) {
+            checkQueries(roster(5_000, 5));
+        }
+    }
+
+    @Test
+    public void test03_unorderedCollections() {
+        for (int i = 0; i < 10; i++) {
+            final List<Student> roster = roster(5_000, 5);
+            checkQueries(new HashSet<>(roster));
+            checkQueries(new ArrayDeque<>(roster));
+        }
+    }
+
+    @Test
+    public void test04_distinctIds() {
+        checkQueries(roster(10_000, 1_000));
+    }
+}
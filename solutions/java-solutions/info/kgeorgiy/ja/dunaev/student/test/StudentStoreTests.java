@@ -0,0 +1,105 @@
+package info.kgeorgiy.ja.dunaev.student.test;
+
+import info.kgeorgiy.ja.dunaev.student.StudentDB;
+import info.kgeorgiy.ja.dunaev.student.StudentStore;
+import info.kgeorgiy.java.advanced.student.Student;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Tests that incrementally maintained {@link StudentStore} aggregates match {@link StudentDB} answers.
+ *
+ * @author Dunaev Kirill
+ */
+public class StudentStoreTests extends BaseTests {
+    private static final StudentDB DB = new StudentDB();
+
+    private static void checkQueries(final StudentStore store, final String context) {
+        final List<Student> students = List.copyOf(store.getStudents());
+        Assertions.assertEquals(DB.getLargestGroup(students), store.getLargestGroup(), context);
+        Assertions.assertEquals(DB.getLargestGroupFirstName(students), store.getLargestGroupFirstName(), context);
+        Assertions.assertEquals(DB.getMostPopularName(students), store.getMostPopularName(), context);
+        Assertions.assertEquals(DB.getLeastPopularName(students), store.getLeastPopularName(), context);
+    }
+
+    private static Student student(final int id, final String firstName, final int group) {
+        return new Student(id, firstName, "Last" + id, GROUPS[group]);
+    }
+
+    @Test
+    public void test01_empty() {
+        final StudentStore store = new StudentStore();
+        checkQueries(store, "empty");
+        store.add(student(1, "A", 0));
+        Assertions.assertNotNull(store.remove(1));
+        checkQueries(store, "emptied");
+    }
+
+    @Test
+    public void test02_ties() {
+        final StudentStore store = new StudentStore();
+        // equal group sizes, equal numbers of distinct first names and equal numbers of groups per name
+        store.add(student(1, "B", 0));
+        store.add(student(2, "A", 1));
+        checkQueries(store, "two groups");
+        store.add(student(3, "A", 0));
+        store.add(student(4, "B", 1));
+        checkQueries(store, "two names in two groups");
+        store.add(student(5, "C", 2));
+        store.add(student(6, "C", 2));
+        checkQueries(store, "three groups");
+        Assertions.assertNotNull(store.remove(1));
+        checkQueries(store, "removed");
+        store.update(student(4, "C", 0));
+        checkQueries(store, "updated");
+    }
+
+    @Test
+    public void test03_randomChanges() {
+        final StudentStore store = new StudentStore();
+        final int ids = 50;
+        for (int i = 0; i < 5_000; i++) {
+            final int id = RANDOM.nextInt(ids);
+            final Student student = student(id, "First" + RANDOM.nextInt(5), RANDOM.nextInt(GROUPS.length));
+            final String operation;
+            switch (RANDOM.nextInt(3)) {
+                case 0 -> {
+                    operation = "add " + id;
+                    if (store.get(id) == null) {
+                        store.add(student);
+                    } else {
+                        Assertions.assertThrows(IllegalArgumentException.class, () -> store.add(student));
+                    }
+                }
+                case 1 -> {
+                    operation = "remove " + id;
+                    final Student previous = store.get(id);
+                    Assertions.assertSame(previous, store.remove(id));
+                }
+                default -> {
+                    operation = "update " + id;
+                    final Student previous = store.get(id);
+                    Assertions.assertSame(previous, store.update(student));
+                }
+            }
+            Assertions.assertEquals(store.getStudents().size(), store.size());
+            checkQueries(store, "after %d: %s".formatted(i, operation));
+        }
+    }
+
+    @Test
+    public void test04_initialRoster() {
+        final List<Student> students = roster(1_000, 5).stream()
+                .map(s -> new Student(RANDOM.nextInt(), s.getFirstName(), s.getLastName(), s.getGroup()))
+                .toList();
+        final StudentStore store = new StudentStore(students);
+        Assertions.assertEquals(students.size(), store.size());
+        checkQueries(store, "initial");
+        final long version = store.getVersion();
+        store.remove(students.get(0));
+        Assertions.assertNotEquals(version, store.getVersion());
+        checkQueries(store, "removed");
+    }
+}
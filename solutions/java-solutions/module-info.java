@@ -8,6 +8,7 @@
 module info.kgeorgiy.ja.dunaev {
     requires java.compiler;
     requires java.rmi;
+    requires jdk.management;
     requires org.junit.jupiter.api;
     requires org.junit.platform.launcher;
     requires org.json;
@@ -34,5 +35,8 @@ module info.kgeorgiy.ja.dunaev {
     exports info.kgeorgiy.ja.dunaev.i18n;
 
     opens info.kgeorgiy.ja.dunaev.bank to org.junit.platform.commons;
+    opens info.kgeorgiy.ja.dunaev.crawler.test to org.junit.platform.commons;
     opens info.kgeorgiy.ja.dunaev.i18n.test to org.junit.platform.commons;
+    opens info.kgeorgiy.ja.dunaev.iterative.test to org.junit.platform.commons;
+    opens info.kgeorgiy.ja.dunaev.student.test to org.junit.platform.commons;
 }